@@ -14,6 +14,22 @@ public final class Constants {
     // Intervalle de mise à jour du timer (en secondes)
     public static final int TIMER_UPDATE_INTERVAL = 1;
 
+    // Fenêtre de regroupement des écritures de timers.json (en millisecondes)
+    public static final int TIMERS_FLUSH_WINDOW_MS = 5000;
+
+    // Fenêtre de regroupement des écritures de subjects.json (en millisecondes) : les crédits de
+    // temps des timers liés sont écrits ensemble
+    public static final int SUBJECTS_FLUSH_WINDOW_MS = 5000;
+
+    // Intervalle maximal entre deux crédits de temps au cours lié pendant un décompte (en secondes)
+    public static final int CREDIT_CHECKPOINT_SECONDS = 60;
+
+    // Cartes de timers construites d'avance pour les lignes de la grille à venir
+    public static final int PREWARMED_TIMER_CARDS = 8;
+
+    // Part du tas occupée après un ramasse-miettes au-delà de laquelle les écrans cachés sont libérés
+    public static final double SCREEN_EVICTION_HEAP_RATIO = 0.85;
+
     // Format de temps
     public static final int TIME_FORMAT_LENGTH = 6; // HHMMSS
     public static final String TIME_FORMAT_PATTERN = "\\d{2}:\\d{2}:\\d{2}";
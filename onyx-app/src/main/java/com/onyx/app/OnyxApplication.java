@@ -1,16 +1,31 @@
 package com.onyx.app;
 
+import com.onyx.app.controller.MainController;
+import com.onyx.app.controller.ViewFactory;
+import com.onyx.app.repository.SubjectRepository;
+import com.onyx.app.repository.TimerRepository;
+import com.onyx.app.repository.impl.AtomicFile;
+import com.onyx.app.repository.impl.DataCodec;
+import com.onyx.app.repository.impl.JournalSubjectRepository;
+import com.onyx.app.repository.impl.JournalTimerRepository;
 import com.onyx.app.repository.impl.JsonSubjectRepository;
 import com.onyx.app.repository.impl.JsonTimerRepository;
+import com.onyx.app.repository.impl.MappedTimerRepository;
+import com.onyx.app.repository.impl.SqlDatabase;
+import com.onyx.app.repository.impl.SqlSubjectRepository;
+import com.onyx.app.repository.impl.SqlTimerRepository;
+import com.onyx.app.service.TimerTickScheduler;
 import com.onyx.app.service.TimersManagerService;
 import com.onyx.app.service.ResponsiveService;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.time.Duration;
 
 /**
  * JavaFX App
@@ -20,36 +35,54 @@ public class OnyxApplication extends Application {
     private static Scene scene;
     private final String title = "Onyx Timer";
     private TimersManagerService timersManagerService;
+    private TimerRepository timerRepository;
+    private SubjectRepository subjectRepository;
     private ResponsiveService responsiveService;
+    private MainController mainController;
 
     @Override
     public void init() throws Exception {
         super.init();
+        // Timer ticks are processed on the JavaFX thread, where the views listen to them
+        TimerTickScheduler.install(TimerTickScheduler.dispatchingTo(Platform::runLater));
         // Initialize repositories and service here
-        JsonTimerRepository timerRepository = new JsonTimerRepository();
-        JsonSubjectRepository subjectRepository = new JsonSubjectRepository();
+        // -Donyx.storage=journal selects the append-only journal engine,
+        // -Donyx.storage=mapped the memory-mapped binary timer store,
+        // -Donyx.storage=sql the embedded H2 database (import existing files with DataMigration)
+        // -Donyx.fsync=NONE|INTERVAL|ALWAYS trades durability against write latency
+        AtomicFile.FsyncPolicy fsyncPolicy = AtomicFile.FsyncPolicy.valueOf(
+                System.getProperty("onyx.fsync", AtomicFile.FsyncPolicy.INTERVAL.name()));
+        // -Donyx.format=SMILE writes the data files in binary Smile instead of pretty JSON
+        DataCodec codec = DataCodec.valueOf(System.getProperty("onyx.format", DataCodec.JSON.name()));
+        if ("journal".equals(System.getProperty("onyx.storage"))) {
+            // Subjects first: timers resolve their subject id against them
+            subjectRepository = new JournalSubjectRepository(fsyncPolicy, codec);
+            timerRepository = new JournalTimerRepository(subjectRepository, fsyncPolicy, codec);
+        } else if ("sql".equals(System.getProperty("onyx.storage"))) {
+            SqlDatabase database = new SqlDatabase();
+            subjectRepository = new SqlSubjectRepository(database);
+            timerRepository = new SqlTimerRepository(database, subjectRepository);
+        } else if ("mapped".equals(System.getProperty("onyx.storage"))) {
+            subjectRepository = new JsonSubjectRepository(
+                    Duration.ofMillis(Constants.SUBJECTS_FLUSH_WINDOW_MS), fsyncPolicy, codec);
+            timerRepository = new MappedTimerRepository(subjectRepository);
+        } else {
+            subjectRepository = new JsonSubjectRepository(
+                    Duration.ofMillis(Constants.SUBJECTS_FLUSH_WINDOW_MS), fsyncPolicy, codec);
+            timerRepository = new JsonTimerRepository(subjectRepository,
+                    Duration.ofMillis(Constants.TIMERS_FLUSH_WINDOW_MS), fsyncPolicy, codec);
+        }
         timersManagerService = new TimersManagerService(timerRepository, subjectRepository);
     }
 
     @Override
     public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(OnyxApplication.class.getResource("/com/onyx/app/view/Main-view.fxml"));
-        
-        // Set the controller factory to inject services
-        fxmlLoader.setControllerFactory(controllerClass -> {
-            if (controllerClass == com.onyx.app.controller.MainController.class) {
-                return new com.onyx.app.controller.MainController(timersManagerService);
-            } else {
-                // default behavior for other controllers
-                try {
-                    return controllerClass.getDeclaredConstructor().newInstance();
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+        // Toutes les vues passent par la même fabrique, qui injecte les services dans les contrôleurs
+        ViewFactory views = new ViewFactory();
+        views.registerController(MainController.class, () -> new MainController(timersManagerService, views));
 
-        Parent root = fxmlLoader.load();
+        ViewFactory.View<Parent, MainController> main = views.create("Main-view");
+        Parent root = main.root();
         scene = new Scene(root, Constants.DEFAULT_WINDOW_WIDTH, Constants.DEFAULT_WINDOW_HEIGHT);
         
         // Add all responsive CSS stylesheets
@@ -70,8 +103,7 @@ public class OnyxApplication extends Application {
         responsiveService = new ResponsiveService(stage, root);
         
         // Get MainController and initialize responsive service
-        com.onyx.app.controller.MainController mainController = 
-            (com.onyx.app.controller.MainController) fxmlLoader.getController();
+        mainController = main.controller();
         mainController.initializeResponsiveService(stage);
         
         stage.show();
@@ -92,6 +124,18 @@ public class OnyxApplication extends Application {
         if (responsiveService != null) {
             responsiveService.cleanup();
         }
+        // Listeners of the main window, including its heap watch on the platform MemoryMXBean
+        if (mainController != null) {
+            mainController.cleanup();
+        }
+        // Flush pending changes before exiting
+        if (timerRepository != null) {
+            timerRepository.close();
+        }
+        if (subjectRepository != null) {
+            subjectRepository.close();
+        }
+        TimerTickScheduler.getInstance().shutdown();
         super.stop();
     }
 
@@ -43,18 +43,29 @@ public class CourseCardController {
         updateUI();
     }
 
+    /**
+     * Réaffiche la carte avec l'état courant du cours
+     */
+    public void update(Subject subject) {
+        this.subject = subject;
+        updateUI();
+    }
+
     private void updateUI() {
         courseNameLabel.setText(subject.getName());
         
         Status status = subject.getStatus();
         statusLabel.setText(status.toString());
         
-        statusLabel.getStyleClass().removeAll(
-            "status-not_started", 
-            "status-in_progress", 
-            "status-completed"
-        );
-        statusLabel.getStyleClass().add("status-" + status.name().toLowerCase());
+        String statusClass = "status-" + status.name().toLowerCase();
+        if (!statusLabel.getStyleClass().contains(statusClass)) { // Sinon le CSS de la carte serait réappliqué
+            statusLabel.getStyleClass().removeAll(
+                "status-not_started", 
+                "status-in_progress", 
+                "status-completed"
+            );
+            statusLabel.getStyleClass().add(statusClass);
+        }
 
         objectiveLabel.setText("Objectif par semaine: " + formatDuration(subject.getTargetTime()));
         elapsedLabel.setText("Passé: " + formatDuration(subject.getTimeSpent()));
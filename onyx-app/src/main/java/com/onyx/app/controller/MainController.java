@@ -1,12 +1,23 @@
 package com.onyx.app.controller;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.Map;
 
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import com.onyx.app.Constants;
 import com.onyx.app.service.ResponsiveService;
 import com.onyx.app.service.TimersManagerService;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
@@ -17,6 +28,15 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import org.kordamp.ikonli.javafx.FontIcon;
 
+/**
+ * Contrôleur de la fenêtre principale : barre de navigation et écran affiché.
+ *
+ * Chaque écran n'est chargé qu'une fois puis conservé dans la scène, masqué quand un autre est
+ * affiché : naviguer ne fait que changer l'écran visible et l'activer (voir {@link ViewLifecycle}),
+ * sans recharger ni réappliquer le CSS de tout l'écran. Quand le tas reste chargé après un
+ * ramasse-miettes, les écrans cachés qui n'ont plus de timer à suivre sont libérés, puis
+ * rechargés à la prochaine navigation.
+ */
 public class MainController {
 
 	@FXML private BorderPane mainPane;
@@ -32,17 +52,37 @@ public class MainController {
 	@FXML private StackPane contentWrapper;
 	@FXML private Pane contentPane;
 
-	private static final String PATH = "/com/onyx/app/view/";
 	private final TimersManagerService timersManagerService;
+	private final ViewFactory views;
 	private ResponsiveService responsiveService;
+	// Écrans déjà chargés, par vue FXML
+	private final Map<String, ViewFactory.View<Pane, Object>> screens = new HashMap<>();
+	private ViewFactory.View<Pane, Object> currentScreen;
+	private NotificationListener memoryListener;
 
 	public MainController(TimersManagerService timersManagerService) {
+		this(timersManagerService, new ViewFactory());
+	}
+
+	public MainController(TimersManagerService timersManagerService, ViewFactory views) {
 		this.timersManagerService = timersManagerService;
+		this.views = views;
+		views.registerController(TimersController.class, () -> {
+			TimersController controller = new TimersController(timersManagerService, views);
+			// Pass responsive service if available
+			if (responsiveService != null) {
+				controller.setResponsiveService(responsiveService);
+			}
+			return controller;
+		});
+		views.registerController(StudyDeckController.class,
+				() -> new StudyDeckController(timersManagerService.getSubjectRepository(), views));
 	}
 
 	@FXML
 	public void initialize() {
 		setupResponsiveComponents();
+		watchMemory();
 		handleDashboard(); // Load dashboard by default
 	}
 
@@ -62,6 +102,9 @@ public class MainController {
 			
 			// Add breakpoint listener for sidebar behavior
 			responsiveService.addBreakpointListener(this::handleBreakpointChange);
+
+			// L'écran par défaut est chargé avant que la fenêtre soit disponible
+			screens.values().forEach(screen -> responsiveService.registerComponent(screen.root()));
 		}
 	}
 
@@ -133,65 +176,103 @@ public class MainController {
 
 	@FXML
 	public void handleDashboard() {
-		Pane view = loadFXML("TimersController-view", timersManagerService);
-		contentWrapper.getChildren().clear();
-		contentWrapper.getChildren().add(view);
-		setActiveMenuButton(dashboardButton);
+		showScreen("TimersController-view", dashboardButton);
 	}
 
 	@FXML
 	public void handleTimer() {
-		Pane view = loadFXML("TimersController-view", timersManagerService);
-		contentWrapper.getChildren().clear();
-		contentWrapper.getChildren().add(view);
-		setActiveMenuButton(timerButton);
+		showScreen("TimersController-view", timerButton);
 	}
 
 	@FXML
 	public void handleStudyDeck() {
-		Pane view = loadFXML("StudyDeck-view", timersManagerService);
-		contentWrapper.getChildren().clear();
-		contentWrapper.getChildren().add(view);
-		setActiveMenuButton(studyDeckButton);
-	}
-
-	private Pane loadFXML(String fxml, TimersManagerService timersManagerService) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/com/onyx/app/view/" + fxml + ".fxml"));
-            fxmlLoader.setControllerFactory(controllerClass -> {
-                if (controllerClass == com.onyx.app.controller.TimersController.class) {
-                    TimersController controller = new TimersController(timersManagerService);
-                    // Pass responsive service if available
-                    if (responsiveService != null) {
-                        controller.setResponsiveService(responsiveService);
-                    }
-                    return controller;
-                } else if (controllerClass == com.onyx.app.controller.StudyDeckController.class) {
-                    return new com.onyx.app.controller.StudyDeckController(timersManagerService.getSubjectRepository());
-                } else {
-                    // default behavior for other controllers
-                    try {
-                        return controllerClass.getDeclaredConstructor().newInstance();
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
-            
-            Pane loadedPane = fxmlLoader.load();
-            
-            // Register loaded content with responsive service
-            if (responsiveService != null && loadedPane instanceof javafx.scene.Parent) {
-                responsiveService.registerComponent((javafx.scene.Parent) loadedPane);
-            }
-            
-            return loadedPane;
-        } catch (IOException e) {
-            System.err.println("Ressource FXML introuvable : " + "/com/onyx/app/view/" + fxml + ".fxml");
-            e.printStackTrace();
-            return new Pane();
-        }
-    }
+		showScreen("StudyDeck-view", studyDeckButton);
+	}
+
+	/**
+	 * Affiche l'écran {@code fxml} à la place de l'écran courant, qui est masqué et désactivé
+	 */
+	private void showScreen(String fxml, Button menuButton) {
+		ViewFactory.View<Pane, Object> screen = loadScreen(fxml);
+		if (screen != currentScreen) {
+			if (currentScreen != null) {
+				setShown(currentScreen, false);
+				if (currentScreen.controller() instanceof ViewLifecycle lifecycle) {
+					lifecycle.onDeactivate();
+				}
+			}
+			currentScreen = screen;
+			setShown(screen, true);
+			if (screen.controller() instanceof ViewLifecycle lifecycle) {
+				lifecycle.onActivate();
+			}
+		}
+		setActiveMenuButton(menuButton);
+	}
+
+	/**
+	 * Retourne l'écran conservé, ou le charge et l'ajoute, masqué, à la zone de contenu
+	 */
+	private ViewFactory.View<Pane, Object> loadScreen(String fxml) {
+		ViewFactory.View<Pane, Object> screen = screens.get(fxml);
+		if (screen == null) {
+			try {
+				screen = views.create(fxml);
+			} catch (IOException e) {
+				System.err.println("Ressource FXML introuvable : " + "/com/onyx/app/view/" + fxml + ".fxml");
+				e.printStackTrace();
+				screen = new ViewFactory.View<>(new Pane(), null);
+			}
+			setShown(screen, false);
+			contentWrapper.getChildren().add(screen.root());
+			screens.put(fxml, screen);
+
+			// Register loaded content with responsive service
+			if (responsiveService != null) {
+				responsiveService.registerComponent(screen.root());
+			}
+		}
+		return screen;
+	}
+
+	private void setShown(ViewFactory.View<Pane, Object> screen, boolean shown) {
+		screen.root().setVisible(shown);
+		screen.root().setManaged(shown);
+	}
+
+	/**
+	 * Libère les écrans cachés quand le tas dépasse {@link Constants#SCREEN_EVICTION_HEAP_RATIO}
+	 * de sa taille maximale juste après un ramasse-miettes
+	 */
+	private void watchMemory() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			long max = pool.getUsage().getMax();
+			if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+				pool.setCollectionUsageThreshold((long) (max * Constants.SCREEN_EVICTION_HEAP_RATIO));
+			}
+		}
+		memoryListener = (notification, handback) -> Platform.runLater(this::evictHiddenScreens);
+		((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(memoryListener,
+				notification -> MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType()),
+				null);
+	}
+
+	/**
+	 * Retire les écrans cachés, sauf ceux qui ont encore des timers à suivre
+	 */
+	private void evictHiddenScreens() {
+		screens.values().removeIf(screen -> {
+			if (screen == currentScreen
+					|| screen.controller() instanceof ViewLifecycle lifecycle && lifecycle.keepAlive()) {
+				return false;
+			}
+			contentWrapper.getChildren().remove(screen.root());
+			if (responsiveService != null) {
+				responsiveService.unregisterComponent(screen.root());
+			}
+			return true;
+		});
+	}
 
 	private void setActiveMenuButton(Button activeButton) {
         dashboardButton.getStyleClass().remove("active");
@@ -216,5 +297,13 @@ public class MainController {
 		if (responsiveService != null) {
 			responsiveService.cleanup();
 		}
+		if (memoryListener != null) {
+			try {
+				((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(memoryListener);
+			} catch (ListenerNotFoundException e) {
+				System.err.println("Erreur lors du retrait de l'écoute mémoire : " + e.getMessage());
+			}
+			memoryListener = null;
+		}
 	}
 }
@@ -1,5 +1,7 @@
 package com.onyx.app.controller;
 
+import com.onyx.app.service.TimerEvent;
+import com.onyx.app.service.TimerEventBus;
 import com.onyx.app.service.TimerService;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -20,6 +22,8 @@ public class MiniTimerController {
 
     private TimerService timerService;
     private Stage stage;
+    private TimerEventBus.Subscription updates;
+    private TimerEventBus.Subscription finished;
 
     @FXML
     public void initialize() {
@@ -28,8 +32,9 @@ public class MiniTimerController {
 
     public void setTimerService(TimerService timerService) {
         this.timerService = timerService;
-        this.timerService.setOnStateChanged(this::updateDisplay);
-        this.timerService.setOnTimerFinished(this::handleTimerFinished);
+        // Tick et transitions : le libellé affiche le temps dans tous les cas
+        this.updates = timerService.getEvents().subscribe(TimerEvent.class, event -> updateDisplay());
+        this.finished = timerService.getEvents().subscribe(TimerEvent.Finished.class, event -> handleTimerFinished());
         updateDisplay();
     }
 
@@ -44,6 +49,8 @@ public class MiniTimerController {
     }
 
     private void handleTimerFinished() {
+        updates.cancel();
+        finished.cancel();
         // Close the pop-up when the timer is finished
         if (stage != null) {
             stage.close();
@@ -3,7 +3,9 @@ package com.onyx.app.controller;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.onyx.app.model.StudyDeck;
 import com.onyx.app.model.Subject;
@@ -16,19 +18,20 @@ import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
 import javafx.scene.layout.VBox;
 
-public class StudyDeckController {
+public class StudyDeckController implements ViewLifecycle {
 
     // Constantes pour la configuration des timers
     private static final double TIMER_STACK_MARGIN = 20.0;
     private static final double TIMER_STACK_MAX_HEIGHT = 400.0;
     private static final double TIMER_STACK_OPACITY = 0.95;
+    private static final String COURSE_CARD_VIEW = "Course-card";
+    private static final String MINI_TIMER_VIEW = "StudyMiniTimer-view";
 
     @FXML private VBox coursesList;
     @FXML private VBox addCoursePane;
@@ -43,25 +46,79 @@ public class StudyDeckController {
     private final StudyDeck studyDeck = new StudyDeck();
     private final BooleanProperty formVisible = new SimpleBooleanProperty(false);
     private final SubjectRepository subjectRepository;
+    private final ViewFactory views;
+    
+    // Cartes affichées, par identifiant de cours
+    private final Map<String, CourseCardController> courseCards = new HashMap<>();
     
     // Multi-timer management
     private List<StudyMiniTimerController> activeTimers = new ArrayList<>();
 
     public StudyDeckController(SubjectRepository subjectRepository) {
+        this(subjectRepository, new ViewFactory());
+    }
+
+    public StudyDeckController(SubjectRepository subjectRepository, ViewFactory views) {
         this.subjectRepository = subjectRepository;
+        this.views = views;
     }
 
     @FXML
     public void initialize() {
         loadCourses();
+        if (!subjectRepository.isLoaded()) {
+            // Première page affichée, le reste arrive en arrière-plan
+            subjectRepository.whenLoaded(() -> Platform.runLater(this::loadCourses));
+        }
         configureFormVisibility();
         setupFormValidation();
         setupInitialState();
         setupDurationField();
+        views.prewarm(MINI_TIMER_VIEW, 1); // Premier mini-timer lancé sans attendre le chargement
+    }
+
+    /**
+     * Reprend le décompte des mini-timers et met à jour les cartes avec le temps crédité aux
+     * cours pendant que l'écran était caché. Les cartes ne sont rechargées que si la liste des
+     * cours a changé.
+     */
+    @Override
+    public void onActivate() {
+        activeTimers.forEach(timer -> timer.setDisplayed(true));
+        List<Subject> subjects = subjectRepository.findAll();
+        if (subjects.size() != courseCards.size()) {
+            loadCourses();
+            return;
+        }
+        for (Subject subject : subjects) {
+            CourseCardController card = courseCards.get(subject.getId());
+            if (card == null) {
+                loadCourses();
+                return;
+            }
+            card.update(subject);
+        }
+    }
+
+    /**
+     * Suspend le décompte affiché des mini-timers, qui continuent à tourner
+     */
+    @Override
+    public void onDeactivate() {
+        activeTimers.forEach(timer -> timer.setDisplayed(false));
+    }
+
+    /**
+     * Les mini-timers ouverts continuent à décompter écran caché
+     */
+    @Override
+    public boolean keepAlive() {
+        return !activeTimers.isEmpty();
     }
 
     private void loadCourses() {
         coursesList.getChildren().clear();
+        courseCards.clear();
         subjectRepository.findAll().forEach(subject -> {
             try {
                 VBox card = createCourseCard(subject);
@@ -164,11 +221,12 @@ public class StudyDeckController {
     }
 
     private VBox createCourseCard(Subject subject) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/onyx/app/view/Course-card.fxml"));
-        VBox card = loader.load();
+        ViewFactory.View<VBox, CourseCardController> view = views.create(COURSE_CARD_VIEW);
+        VBox card = view.root();
         
-        CourseCardController controller = loader.getController();
+        CourseCardController controller = view.controller();
         controller.initData(subject, this); // Pass this controller for deletion
+        courseCards.put(subject.getId(), controller);
         
         return card;
     }
@@ -185,6 +243,7 @@ public class StudyDeckController {
 
     public void deleteCourse(Subject subject, VBox card) {
         subjectRepository.deleteById(subject.getId());
+        courseCards.remove(subject.getId());
         coursesList.getChildren().remove(card);
     }
 
@@ -215,11 +274,11 @@ public class StudyDeckController {
     public void startMiniTimerWithDuration(Subject subject, Duration timerDuration) {
         try {
             // Charger le FXML du mini-timer pour Study
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/onyx/app/view/StudyMiniTimer-view.fxml"));
-            VBox miniTimerView = loader.load();
+            ViewFactory.View<VBox, StudyMiniTimerController> view = views.create(MINI_TIMER_VIEW);
+            VBox miniTimerView = view.root();
             
             // Obtenir le contrôleur
-            StudyMiniTimerController newMiniTimer = loader.getController();
+            StudyMiniTimerController newMiniTimer = view.controller();
             
             // Créer un TimerService pour ce mini-timer
             TimerService timerService = new TimerService(subjectRepository);
@@ -333,8 +392,13 @@ public class StudyDeckController {
     private void removeTimer(StudyMiniTimerController timerToRemove) {
         // Arrêter le timer s'il est en cours
         TimerService timerService = timerToRemove.getTimerService();
-        if (timerService != null && timerService.isRunning()) {
-            timerService.stopTimer();
+        if (timerService != null) {
+            if (timerService.isRunning()) {
+                timerService.stopTimer();
+            }
+            // Mini-timer non persisté : son modèle disparaît avec lui
+            timerService.dispose();
+            timerService.getTimerModel().release();
         }
         
         // Retirer de la liste des timers actifs
@@ -5,6 +5,8 @@ import java.util.function.Consumer;
 import org.kordamp.ikonli.javafx.FontIcon;
 
 import com.onyx.app.model.Subject;
+import com.onyx.app.service.TimerEvent;
+import com.onyx.app.service.TimerEventBus;
 import com.onyx.app.service.TimerService;
 
 import javafx.animation.FadeTransition;
@@ -13,6 +15,7 @@ import javafx.animation.ScaleTransition;
 import javafx.animation.Timeline;
 import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -42,6 +45,12 @@ public class StudyMiniTimerController {
     private java.time.Duration initialDuration;
     private Consumer<StudyMiniTimerController> onTimerFinished;
     private Consumer<StudyMiniTimerController> onClose;
+    private ObservableValue<Boolean> visibility;
+    // Faux quand l'écran Study est caché par la navigation, sans être détaché de la scène
+    private boolean displayed = true;
+    private TimerEventBus.Subscription stateSubscription;
+    private TimerEventBus.Subscription finishedSubscription;
+    private TimerEventBus.Subscription tickSubscription;
 
     @FXML
     public void initialize() {
@@ -49,6 +58,7 @@ public class StudyMiniTimerController {
         updatePlayPauseIcon(false);
         // Initialiser la barre de progression
         progressBar.setProgress(0.0);
+        visibility = ViewVisibility.track(miniTimerContainer, this::setTicking);
     }
 
     /**
@@ -66,8 +76,47 @@ public class StudyMiniTimerController {
         
         // Configurer les callbacks du timer service
         if (this.timerService != null) {
-            this.timerService.setOnStateChanged(this::handleTimerStateChanged);
-            this.timerService.setOnTimerFinished(this::handleTimerCompleted);
+            // Livraison sur le thread JavaFX ; les ticks en retard y sont fusionnés
+            TimerEventBus events = this.timerService.getEvents();
+            stateSubscription = events.subscribe(TimerEvent.StateChange.class, Platform::runLater, event -> handleTimerStateChanged());
+            finishedSubscription = events.subscribe(TimerEvent.Finished.class, Platform::runLater, event -> handleTimerCompleted());
+            setTicking(visibility.getValue());
+        }
+    }
+
+    /**
+     * Suspend ou reprend l'affichage du décompte quand l'écran Study est caché ou réaffiché
+     */
+    public void setDisplayed(boolean displayed) {
+        this.displayed = displayed;
+        setTicking(visibility.getValue());
+    }
+
+    /**
+     * Ticks par seconde uniquement quand le widget est visible ; l'échéance de fin reste suivie
+     */
+    private void setTicking(boolean visible) {
+        if (timerService == null) {
+            return;
+        }
+        visible &= displayed;
+        if (visible && tickSubscription == null) {
+            tickSubscription = timerService.getEvents().subscribe(TimerEvent.Tick.class, Platform::runLater, event -> handleTimerTick());
+            handleTimerTick(); // Rattrape l'affichage après une période cachée
+        } else if (!visible && tickSubscription != null) {
+            tickSubscription.cancel();
+            tickSubscription = null;
+        }
+    }
+
+    private void unsubscribe() {
+        if (stateSubscription != null) {
+            stateSubscription.cancel();
+            finishedSubscription.cancel();
+        }
+        if (tickSubscription != null) {
+            tickSubscription.cancel();
+            tickSubscription = null;
         }
     }
 
@@ -145,6 +194,7 @@ public class StudyMiniTimerController {
         if (timerService != null && timerService.isRunning()) {
             timerService.stopTimer();
         }
+        unsubscribe();
         
         // Animation de fermeture
         hideWithAnimation(() -> {
@@ -155,45 +205,43 @@ public class StudyMiniTimerController {
     }
 
     private void handleTimerStateChanged() {
-        Platform.runLater(() -> {
-            updateTimeDisplay();
-            updateProgressBar();
-            updatePlayPauseIcon(timerService != null && timerService.isRunning());
-            updateButtonStyles();
-        });
+        updateTimeDisplay();
+        updateProgressBar();
+        updatePlayPauseIcon(timerService != null && timerService.isRunning());
+        updateButtonStyles();
+    }
+
+    private void handleTimerTick() {
+        updateTimeDisplay();
+        updateProgressBar();
     }
 
     private void handleTimerCompleted() {
-        Platform.runLater(() -> {
-            // Ajouter le temps au sujet lié si disponible
-            if (linkedSubject != null && initialDuration != null) {
-                linkedSubject.addTimeSpent(initialDuration);
+        // Le temps est déjà crédité au sujet partagé par TimerService.handleTimerFinished
+
+        // Animation de completion (pulse)
+        ScaleTransition pulse = new ScaleTransition(Duration.millis(200), miniTimerContainer);
+        pulse.setFromX(1.0);
+        pulse.setFromY(1.0);
+        pulse.setToX(1.05);
+        pulse.setToY(1.05);
+        pulse.setCycleCount(2);
+        pulse.setAutoReverse(true);
+        
+        pulse.setOnFinished(e -> {
+            // Notifier la fin du timer
+            if (onTimerFinished != null) {
+                onTimerFinished.accept(this);
             }
             
-            // Animation de completion (pulse)
-            ScaleTransition pulse = new ScaleTransition(Duration.millis(200), miniTimerContainer);
-            pulse.setFromX(1.0);
-            pulse.setFromY(1.0);
-            pulse.setToX(1.05);
-            pulse.setToY(1.05);
-            pulse.setCycleCount(2);
-            pulse.setAutoReverse(true);
-            
-            pulse.setOnFinished(e -> {
-                // Notifier la fin du timer
-                if (onTimerFinished != null) {
-                    onTimerFinished.accept(this);
-                }
-                
-                // Auto-fermeture après 3 secondes avec Timeline pour éviter les threads
-                Timeline autoClose = new Timeline(
-                    new KeyFrame(Duration.seconds(3), event -> handleClose())
-                );
-                autoClose.play();
-            });
-            
-            pulse.play();
+            // Auto-fermeture après 3 secondes avec Timeline pour éviter les threads
+            Timeline autoClose = new Timeline(
+                new KeyFrame(Duration.seconds(3), event -> handleClose())
+            );
+            autoClose.play();
         });
+        
+        pulse.play();
     }
 
     private void updateSubjectName() {
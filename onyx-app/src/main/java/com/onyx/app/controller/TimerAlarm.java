@@ -0,0 +1,58 @@
+package com.onyx.app.controller;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.onyx.app.service.TimerEvent;
+import com.onyx.app.service.TimerEventBus;
+import com.onyx.app.service.TimerService;
+
+import javafx.scene.media.AudioClip;
+
+/**
+ * Alarme de fin des timers, unique pour l'écran des timers. Elle ne dépend pas des cartes : la
+ * grille virtualisée n'en crée que pour les lignes visibles et les recycle au défilement, alors
+ * qu'un timer hors de l'écran doit sonner lui aussi, et continuer de sonner quand sa carte passe
+ * à un autre timer.
+ *
+ * L'alarme sonne tant qu'un timer terminé n'a pas changé d'état : réinitialisé, relancé,
+ * reconfiguré, arrêté ou supprimé.
+ */
+final class TimerAlarm {
+
+    private final AudioClip sound;
+    // Timers terminés qui sonnent, avec l'abonnement qui les fera taire
+    private final Map<TimerService, TimerEventBus.Subscription> ringing = new IdentityHashMap<>();
+
+    TimerAlarm() {
+        sound = new AudioClip(getClass().getResource("/sounds/timerSound.mp3").toString());
+        sound.setCycleCount(AudioClip.INDEFINITE);
+    }
+
+    /**
+     * Fait sonner l'alarme pour un timer qui vient de se terminer
+     */
+    synchronized void ring(TimerService timer) {
+        if (ringing.containsKey(timer)) {
+            return;
+        }
+        ringing.put(timer, timer.getEvents().subscribe(TimerEvent.StateChange.class, event -> {
+            if (!(event instanceof TimerEvent.Finished) && !(event instanceof TimerEvent.Checkpoint)) {
+                silence(timer);
+            }
+        }));
+        if (!sound.isPlaying()) {
+            sound.play();
+        }
+    }
+
+    private synchronized void silence(TimerService timer) {
+        TimerEventBus.Subscription subscription = ringing.remove(timer);
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        if (ringing.isEmpty()) {
+            sound.stop();
+        }
+    }
+}
@@ -65,18 +65,47 @@ public class TimerConfigDialogController {
 		updateStatusLabel();
 	}
 
+	/**
+	 * Remet le formulaire dans son état initial, pour réutiliser la boîte de dialogue
+	 */
+	public void reset() {
+		timerTextFliedConfig.setText("00:00:00");
+		timerTypeComboBox.setValue(null);
+		courseComboBox.setValue(null);
+		updateAssociatedCourseVisibility(null);
+		updateStatusLabel();
+		Platform.runLater(() -> {
+			timerTextFliedConfig.requestFocus();
+			timerTextFliedConfig.positionCaret(1);
+		});
+	}
+
 	public void setStudyDeck(StudyDeck studyDeck) {
         this.studyDeck = studyDeck;
         courseComboBox.getItems().setAll(studyDeck.getSubjectList());
     }
 
 	public void setSubjectRepository(SubjectRepository subjectRepository) {
+		boolean changed = this.subjectRepository != subjectRepository;
 		this.subjectRepository = subjectRepository;
 		// Load all subjects into the courseComboBox
 		if (subjectRepository != null) {
-			courseComboBox.getItems().setAll(subjectRepository.findAll());
+			loadCourses();
+			if (changed && !subjectRepository.isLoaded()) {
+				// Premiers cours affichés, la liste est complétée à la fin du chargement
+				subjectRepository.whenLoaded(() -> Platform.runLater(this::loadCourses));
+			}
 		}
 	}
+
+	/**
+	 * Remplit la liste des cours, en gardant le cours déjà choisi
+	 */
+	private void loadCourses() {
+		Subject selected = courseComboBox.getValue();
+		courseComboBox.getItems().setAll(subjectRepository.findAll());
+		courseComboBox.setValue(selected);
+	}
 	
 	/**
 	 * Gère le clic sur le bouton Cancel
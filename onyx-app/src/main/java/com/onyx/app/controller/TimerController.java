@@ -1,13 +1,16 @@
 package com.onyx.app.controller;
 
-import com.onyx.app.Constants;
 import com.onyx.app.model.Subject;
 import com.onyx.app.model.TimerConfigResult;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.onyx.app.repository.SubjectRepository;
+import com.onyx.app.service.TimerEvent;
+import com.onyx.app.service.TimerEventBus;
 import com.onyx.app.service.TimerService;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.beans.value.ObservableValue;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -17,8 +20,6 @@ import javafx.scene.control.TextField;
  * utilisateur. La logique métier est déléguée au TimerService.
  */
 import javafx.scene.layout.VBox;
-import javafx.scene.media.AudioClip;
-import javafx.util.Duration;
 
 public class TimerController {
 
@@ -38,8 +39,11 @@ public class TimerController {
 	private TimerService timerService;
 	private TimersController parentController;
 	private SubjectRepository subjectRepository;
-	private Timeline timeline;
-    private AudioClip sound;
+	private ObservableValue<Boolean> visibility;
+	// Faux quand l'écran des timers est caché par la navigation, sans être détaché de la scène
+	private boolean displayed = true;
+	private final List<TimerEventBus.Subscription> subscriptions = new ArrayList<>();
+	private TimerEventBus.Subscription tickSubscription;
 
 	// ========================================
 	// INITIALISATION ET CONFIGURATION
@@ -56,35 +60,72 @@ public class TimerController {
 		
 		// setupClickOutsideListener();
 		updateCourseDisplay();
-		initializeTimeline();
-        initializeSound();
-
+		visibility = ViewVisibility.track(timeLabel, this::setTicking);
 	}
 
-	private void initializeTimeline() {
-        timeline = new Timeline(new KeyFrame(Duration.seconds(Constants.TIMER_UPDATE_INTERVAL), e -> {
-            if (timerService != null) {
-                timerService.decrement();
-            }
-        }));
-        timeline.setCycleCount(Timeline.INDEFINITE);
-    }
-
-    private void initializeSound() {
-        sound = new AudioClip(getClass().getResource("/sounds/timerSound.mp3").toString());
-        sound.setCycleCount(AudioClip.INDEFINITE);
-    }
-
 	/**
 	 * Définit le service Timer à utiliser
 	 */
 	public void setTimerService(TimerService service) {
+		if (timerService != null) {
+			unsubscribe(); // Carte recyclée : elle quitte le timer affiché jusque-là
+		}
 		this.timerService = service;
-		// Un seul callback pour toute la synchronisation
-		timerService.setOnStateChanged(this::updateDisplay);
-		timerService.setOnTimerFinished(this::handleTimerFinished);
+		// Abonnements propres à la carte : ceux du gestionnaire (sauvegarde) restent en place
+		TimerEventBus events = timerService.getEvents();
+		subscriptions.add(events.subscribe(TimerEvent.StateChange.class, event -> updateDisplay()));
+		subscriptions.add(events.subscribe(TimerEvent.Finished.class, event -> handleTimerFinished()));
+		subscriptions.add(events.subscribe(TimerEvent.Deleted.class, event -> unsubscribe()));
+		setTicking(visibility.getValue());
 		updateDisplay();
 	}
+
+	/**
+	 * Détache la carte de son timer, sans effet sur celui-ci, pour qu'elle puisse en afficher un autre
+	 */
+	public void clearTimerService() {
+		if (timerService != null) {
+			unsubscribe();
+			timerService = null;
+		}
+	}
+
+	/**
+	 * Suspend ou reprend l'affichage du décompte quand l'écran des timers est caché ou réaffiché
+	 */
+	public void setDisplayed(boolean displayed) {
+		this.displayed = displayed;
+		setTicking(visibility.getValue());
+	}
+
+	/**
+	 * N'écoute les ticks par seconde que si la carte est visible : sinon le moteur dort jusqu'à
+	 * la prochaine échéance
+	 */
+	private void setTicking(boolean visible) {
+		if (timerService == null) return;
+		visible &= displayed;
+		if (visible && tickSubscription == null) {
+			// Seul le temps change à chaque seconde
+			tickSubscription = timerService.getEvents().subscribe(TimerEvent.Tick.class, event -> updateTimeDisplay());
+			updateTimeDisplay(); // Rattrape le temps écoulé pendant que la carte était cachée
+		} else if (!visible && tickSubscription != null) {
+			tickSubscription.cancel();
+			tickSubscription = null;
+		}
+	}
+
+	/**
+	 * Annule les abonnements de la carte aux événements du timer
+	 */
+	private void unsubscribe() {
+		subscriptions.forEach(TimerEventBus.Subscription::cancel);
+		subscriptions.clear();
+		if (tickSubscription != null) {
+			tickSubscription.cancel();
+			tickSubscription = null;
+		}
+	}
 	
 	/**
 	 * Configure l'écouteur pour détecter les clics en dehors du champ d'édition
@@ -162,12 +203,8 @@ public class TimerController {
 	 */
 	@FXML
 	public void handleStartPause() {
+		// Le décompte est assuré par le TimerTickScheduler partagé
 		timerService.toggleTimer();
-        if (timerService.isRunning()) {
-            timeline.play();
-        } else {
-            timeline.pause();
-        }
 	}
 
 	/**
@@ -175,9 +212,7 @@ public class TimerController {
 	 */
 	@FXML
 	public void handleReset() {
-        timeline.stop();
-        sound.stop();
-		timerService.resetTimer();
+		timerService.resetTimer(); // L'alarme de l'écran se tait d'elle-même
 	}
 
     @FXML
@@ -246,6 +281,13 @@ public class TimerController {
         updateCourseDisplay(); // Assure la synchronisation du cours lié
 	}
 
+	/**
+	 * Met à jour le temps affiché
+	 */
+	private void updateTimeDisplay() {
+		timeLabel.setText(timerService.getFormattedTime());
+	}
+
 	/**
 	 * Met à jour l'état des boutons selon l'état du timer
 	 */
@@ -269,11 +311,9 @@ public class TimerController {
 	}
 
 	/**
-	 * Gère la fin du timer
+	 * Gère la fin du timer ; l'alarme est portée par l'écran des timers, pas par la carte
 	 */
 	private void handleTimerFinished() {
-		timeline.stop();
-        sound.play();
 		System.out.println("Timer termine !");
 		updateButtonStates();
 		updateCourseDisplay(); // Mettre à jour l'affichage du cours
@@ -301,8 +341,7 @@ public class TimerController {
 	 * Nettoie les ressources
 	 */
 	public void dispose() {
-        timeline.stop();
-        sound.stop();
+		unsubscribe();
 		if (timerService != null) {
 			timerService.dispose();
 		}
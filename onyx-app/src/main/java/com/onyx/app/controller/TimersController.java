@@ -1,43 +1,85 @@
 package com.onyx.app.controller;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.onyx.app.Constants;
 import com.onyx.app.model.TimerConfigResult;
+import com.onyx.app.model.TimerModel;
 import com.onyx.app.service.ResponsiveService;
 import com.onyx.app.service.TimerService;
 import com.onyx.app.service.TimersManagerService;
 
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
-import javafx.scene.control.TextField;
-import javafx.scene.layout.FlowPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 
-import com.onyx.app.model.Subject;
-
 /**
  * Contrôleur pour gérer plusieurs timers avec support responsive
  * Utilise le TimersManagerService pour la logique métier
+ *
+ * La grille est virtualisée : chaque ligne de cartes est une cellule de ListView, et seules les
+ * lignes visibles ont des cartes, recyclées au défilement. Le graphe de scène et le coût des
+ * passes CSS et de mise en page ne dépendent plus du nombre de timers enregistrés.
+ *
+ * L'écran est conservé entre deux navigations : caché, ses cartes ne suivent plus le décompte
+ * et la grille n'est remise à jour qu'à son retour.
  */
-public class TimersController {
+public class TimersController implements ViewLifecycle {
 
 	@FXML
 	private StackPane timersRoot;
 	@FXML
 	private VBox timerContentWrapper;
 	@FXML
-	private FlowPane timersList;
+	private ListView<List<String>> timersList;
 	@FXML
 	private StackPane configOverlay;
 	
 	private final TimersManagerService timersManager;
+	private final ViewFactory views;
+	// Boîte de configuration chargée une fois, remise à zéro à chaque ouverture
+	private ViewFactory.View<Parent, TimerConfigDialogController> configDialog;
 	private ResponsiveService responsiveService;
+	// Sonne pour tout timer terminé, que sa carte soit affichée ou non
+	private final TimerAlarm alarm = new TimerAlarm();
+	// Identifiants des timers, regroupés par ligne de la grille
+	private final ObservableList<List<String>> rows = FXCollections.observableArrayList();
+	private int columns = 1;
+	private double cardWidth = DEFAULT_CARD_WIDTH;
+	private double gap = DEFAULT_GAP;
+	private Pos rowAlignment = Pos.TOP_LEFT;
+	// Hauteur commune des lignes, mesurée sur la première ligne affichée (0 : à mesurer)
+	private double rowHeight;
+	// Lignes créées par la liste, jamais recréées : seules leurs cartes sont liées à des timers
+	private final List<TimerCardRow> rowCells = new ArrayList<>();
+	private boolean displayed = true;
+	// Liste des timers modifiée pendant que l'écran était caché
+	private boolean rowsStale;
+
+	private static final double DEFAULT_CARD_WIDTH = 280;
+	private static final double DEFAULT_GAP = 16;
+	private static final double SCROLL_BAR_ALLOWANCE = 16;
+	private static final String TIMER_CARD_VIEW = "Timer-card-view";
+	private static final String CONFIG_DIALOG_VIEW = "Timer-config-dialog-view";
 
 	public TimersController(TimersManagerService timersManager) {
+		this(timersManager, new ViewFactory());
+	}
+
+	public TimersController(TimersManagerService timersManager, ViewFactory views) {
 		this.timersManager = timersManager;
+		this.views = views;
 	}
 
 	/**
@@ -65,24 +107,56 @@ public class TimersController {
 		// Initialize responsive grid layout
 		updateGridLayout();
 		
-		// Load existing timers from the service
-		for (TimerService timerService : timersManager.getAllTimers()) {
-			try {
-				VBox newTimerCard = createTimerCard(timerService);
-				timersList.getChildren().add(newTimerCard);
-				
-				// Register timer card with responsive service
-				if (responsiveService != null) {
-					responsiveService.registerComponent(newTimerCard);
-				}
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
+		// Les cartes ne sont créées que pour les lignes affichées
+		timersList.setItems(rows);
+		timersList.setCellFactory(list -> {
+			TimerCardRow cell = new TimerCardRow();
+			rowCells.add(cell);
+			return cell;
+		});
+		timersList.widthProperty().addListener((observable, oldWidth, newWidth) -> updateColumns());
+		rebuildRows();
+		// Cartes des lignes à venir et boîte de configuration prêtes avant d'être demandées
+		views.prewarm(TIMER_CARD_VIEW, Constants.PREWARMED_TIMER_CARDS);
+		views.prewarm(CONFIG_DIALOG_VIEW, 1);
 
 		// Configurer les callbacks pour les changements de liste
 		timersManager.setOnTimersListChanged(this::refreshTimersList);
 		timersManager.setOnActiveTimersChanged(this::updateActiveTimersDisplay);
+		timersManager.setOnTimerFinished(alarm::ring);
+	}
+
+	/**
+	 * Reprend le décompte affiché des cartes et rattrape les créations et suppressions faites
+	 * pendant que l'écran était caché
+	 */
+	@Override
+	public void onActivate() {
+		displayed = true;
+		if (rowsStale) {
+			rowsStale = false;
+			rebuildRows();
+		}
+		rowCells.forEach(cell -> cell.setDisplayed(true));
+	}
+
+	/**
+	 * Suspend le décompte affiché des cartes et ferme la configuration en cours. Les cartes
+	 * restent abonnées aux fins de décompte, qui sonnent aussi écran caché.
+	 */
+	@Override
+	public void onDeactivate() {
+		displayed = false;
+		rowCells.forEach(cell -> cell.setDisplayed(false));
+		hideTimerConfigDialog();
+	}
+
+	/**
+	 * Écran d'accueil, dont les cartes restent abonnées à leurs timers
+	 */
+	@Override
+	public boolean keepAlive() {
+		return true;
 	}
 
 	/**
@@ -91,38 +165,63 @@ public class TimersController {
 	private void updateGridLayout() {
 		if (responsiveService != null && timersList != null) {
 			ResponsiveService.Breakpoint currentBreakpoint = responsiveService.getCurrentBreakpoint();
-			double recommendedGap = responsiveService.getRecommendedGap();
-			
-			// Update FlowPane gaps based on breakpoint
-			timersList.setHgap(recommendedGap);
-			timersList.setVgap(recommendedGap);
-			
-			// Set preferred tile dimensions for consistent card sizing
-			ResponsiveService.ComponentDimensions cardDimensions = 
-				responsiveService.getComponentDimensions("timer-card");
-			
-			// Note: FlowPane doesn't have setPrefTileWidth/Height methods
-			// The card dimensions are controlled via CSS classes instead
-			// timersList.setPrefTileWidth(cardDimensions.width());
-			// timersList.setPrefTileHeight(cardDimensions.height());
+			gap = responsiveService.getRecommendedGap();
+			cardWidth = responsiveService.getComponentDimensions("timer-card").width();
 			
 			// Ensure proper alignment
 			switch (currentBreakpoint) {
 				case MOBILE:
-					timersList.setAlignment(javafx.geometry.Pos.TOP_CENTER);
-					break;
 				case TABLET:
-					timersList.setAlignment(javafx.geometry.Pos.TOP_CENTER);
+					rowAlignment = Pos.TOP_CENTER;
 					break;
 				case DESKTOP:
 				case LARGE_DESKTOP:
 				case ULTRA_WIDE:
-					timersList.setAlignment(javafx.geometry.Pos.TOP_LEFT);
+					rowAlignment = Pos.TOP_LEFT;
 					break;
 			}
+			// Seules les lignes existantes sont remises en forme, puis mesurées à nouveau ; les
+			// recréer laisserait les cartes des anciennes lignes abonnées à leurs timers
+			rowHeight = 0;
+			updateColumns();
+			rowCells.forEach(TimerCardRow::layoutRow);
 		}
 	}
 
+	/**
+	 * Recalcule le nombre de cartes par ligne selon la largeur disponible
+	 */
+	private void updateColumns() {
+		double available = timersList.getWidth() - SCROLL_BAR_ALLOWANCE - gap;
+		int fit = Math.max(1, (int) (available / (cardWidth + gap)));
+		if (fit != columns) {
+			columns = fit;
+			rebuildRows();
+		}
+	}
+
+	/**
+	 * Regroupe les timers en lignes de {@code columns} cartes, suivies d'une ligne vide qui laisse
+	 * le bouton flottant hors de la dernière carte. Ne crée aucun nœud : les cellules visibles se
+	 * lient aux nouvelles lignes.
+	 */
+	private void rebuildRows() {
+		List<TimerModel> models = timersManager.getAllTimerModels();
+		List<List<String>> grouped = new ArrayList<>((models.size() + columns - 1) / columns);
+		for (int start = 0; start < models.size(); start += columns) {
+			int end = Math.min(start + columns, models.size());
+			List<String> row = new ArrayList<>(end - start);
+			for (int i = start; i < end; i++) {
+				row.add(models.get(i).getId());
+			}
+			grouped.add(row);
+		}
+		if (!grouped.isEmpty()) {
+			grouped.add(List.of());
+		}
+		rows.setAll(grouped);
+	}
+
 	/**
 	 * Crée un nouveau timer et l'ajoute à l'interface
 	 */
@@ -133,22 +232,78 @@ public class TimersController {
 	}
 
 	/**
-	 * Crée l'interface utilisateur pour un timer
+	 * Crée une carte de timer, liée ensuite au timer de la cellule qui l'affiche
 	 */
-	private VBox createTimerCard(TimerService timerService) throws IOException {
-		FXMLLoader loader = new FXMLLoader(
-			getClass().getResource("/com/onyx/app/view/Timer-card-view.fxml")
-		);
-		VBox newTimerCard = (VBox) loader.load();
-
-		// Configurer le contrôleur avec le service
-		TimerController newTimerController = loader.<TimerController>getController();
-		newTimerController.setTimerService(timerService);
+	private TimerController createTimerCard() throws IOException {
+		ViewFactory.View<VBox, TimerController> view = views.create(TIMER_CARD_VIEW);
+		VBox newTimerCard = view.root();
+
+		TimerController newTimerController = view.controller();
 		newTimerController.setParentController(this);
 		newTimerController.setSubjectRepository(timersManager.getSubjectRepository());
 		newTimerController.setTimerCardVBox(newTimerCard);
+		newTimerController.setDisplayed(displayed);
 		
-		return newTimerCard;
+		return newTimerController;
+	}
+
+	/**
+	 * Ligne de la grille : un groupe de cartes recyclées, liées aux timers de la ligne affichée.
+	 * Les services des timers sont créés au moment où leur carte apparaît.
+	 */
+	private final class TimerCardRow extends ListCell<List<String>> {
+
+		private final HBox row = new HBox();
+		private final List<TimerController> cards = new ArrayList<>();
+
+		@Override
+		protected void updateItem(List<String> ids, boolean empty) {
+			super.updateItem(ids, empty);
+			int shown = empty || ids == null ? 0 : ids.size();
+			try {
+				while (cards.size() < shown) {
+					TimerController card = createTimerCard();
+					cards.add(card);
+					row.getChildren().add(card.getTimerCard());
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+				shown = Math.min(shown, cards.size());
+			}
+			for (int i = 0; i < cards.size(); i++) {
+				TimerController card = cards.get(i);
+				TimerService service = i < shown ? timersManager.getTimer(ids.get(i)) : null;
+				if (service == null) {
+					card.clearTimerService();
+				} else if (card.getTimerService() != service) {
+					card.setTimerService(service);
+				}
+				card.getTimerCard().setVisible(service != null);
+				card.getTimerCard().setManaged(service != null);
+			}
+			setGraphic(shown == 0 ? null : row);
+			layoutRow();
+		}
+
+		/**
+		 * Applique l'espacement et l'alignement courants, et mesure la hauteur des lignes si elle
+		 * est à recalculer
+		 */
+		private void layoutRow() {
+			row.setSpacing(gap);
+			row.setAlignment(rowAlignment);
+			row.setPadding(new Insets(gap / 2));
+			if (rowHeight == 0 && getGraphic() != null && row.getScene() != null) {
+				// Lignes de hauteur fixe : la liste n'a plus à mesurer les lignes hors de l'écran
+				row.applyCss();
+				rowHeight = row.prefHeight(-1);
+				timersList.setFixedCellSize(rowHeight);
+			}
+		}
+
+		private void setDisplayed(boolean displayed) {
+			cards.forEach(card -> card.setDisplayed(displayed));
+		}
 	}
 
 	/**
@@ -172,7 +327,6 @@ public class TimersController {
 	 */
 	@FXML
 	private void handleClearAllTimers() {
-		timersList.getChildren().clear();
 		timersManager.removeAllTimers();
 	}
 
@@ -181,6 +335,11 @@ public class TimersController {
 	 */
 	private void refreshTimersList() {
 		// Cette méthode peut être appelée quand la liste des timers change
+		if (!displayed) {
+			rowsStale = true; // Lignes reconstruites au prochain affichage
+			return;
+		}
+		rebuildRows();
 		System.out.println("Nombre total de timers: " + timersManager.getTimersCount());
 		System.out.println("Timers actifs: " + timersManager.getActiveTimersCount());
 		System.out.println("Timers en cours: " + timersManager.getRunningTimersCount());
@@ -219,10 +378,14 @@ public class TimersController {
 	 */
 	public void showTimerConfigDialog(TimerController existingTimerController) {
 		try {
-			FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/onyx/app/view/Timer-config-dialog-view.fxml"));
-			Parent configContent = loader.load();
+			if (configDialog == null) {
+				configDialog = views.create(CONFIG_DIALOG_VIEW);
+			} else {
+				configDialog.controller().reset();
+			}
+			Parent configContent = configDialog.root();
 
-			TimerConfigDialogController controller = loader.<TimerConfigDialogController>getController();
+			TimerConfigDialogController controller = configDialog.controller();
 			controller.setSubjectRepository(timersManager.getSubjectRepository()); // Pass the SubjectRepository
 			
 			// Si on modifie un timer existant, pré-remplir les valeurs actuelles
@@ -241,22 +404,16 @@ public class TimersController {
 						// Modifier le timer existant
 						existingTimerController.handleDialogResult(result);
 					} else {
-						// Créer un nouveau timer avec les paramètres configurés
-						TimerService timerService = timersManager.createTimer(
+						// Créer un nouveau timer avec les paramètres configurés ; sa carte apparaît
+						// avec la reconstruction des lignes
+						timersManager.createTimer(
 							result.hours(),
 							result.minutes(),
 							result.seconds(),
 							result.timerType(),
 							result.subject()
 						);
-						// Créer l'interface utilisateur pour ce timer
-						try {
-							VBox newTimerCard = createTimerCard(timerService);
-							// Ajouter à l'interface
-							timersList.getChildren().add(newTimerCard);
-						} catch (IOException ex) {
-							ex.printStackTrace();
-						}
+						timersList.scrollTo(Math.max(0, rows.size() - 2)); // Dernière ligne de cartes
 					}
 				}
 				hideTimerConfigDialog();
@@ -291,9 +448,8 @@ public class TimersController {
 	public void removeTimerCard(TimerController timerController) {
 		TimerService timerServiceToRemove = timerController.getTimerService();
 		if (timerServiceToRemove != null) {
+			// La carte est recyclée par la reconstruction des lignes
 			timersManager.removeTimer(timerServiceToRemove);
-			// Remove the VBox from the FlowPane
-			timersList.getChildren().remove(timerController.getTimerCard());
 		}
 	}
 }
@@ -0,0 +1,147 @@
+package com.onyx.app.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+/**
+ * Fabrique des vues FXML de l'application.
+ *
+ * Le source de chaque vue n'est lu qu'une fois, et ses contrôleurs sont créés par les fabriques
+ * enregistrées ici : les dépendances sont injectées au même endroit pour toutes les vues. Une vue
+ * répétée (carte, mini-timer) peut garder une réserve d'instances construites d'avance, une par
+ * tâche postée sur le thread JavaFX, et complétée à chaque instance prise : l'obtenir ne coûte
+ * alors plus d'analyse FXML.
+ *
+ * À utiliser depuis le thread JavaFX.
+ */
+public class ViewFactory {
+
+	private static final String PATH = "/com/onyx/app/view/";
+
+	/**
+	 * Vue instanciée : sa racine et son contrôleur
+	 */
+	public record View<N extends Parent, C>(N root, C controller) {
+	}
+
+	private final Map<Class<?>, Supplier<?>> controllers = new HashMap<>();
+	private final Map<String, Template> templates = new HashMap<>();
+
+	/**
+	 * Enregistre la fabrique des contrôleurs de type {@code type}, à la place du constructeur sans argument
+	 */
+	public <C> void registerController(Class<C> type, Supplier<? extends C> factory) {
+		controllers.put(type, factory);
+	}
+
+	/**
+	 * Instancie la vue {@code name} (sans chemin ni extension), depuis la réserve si possible
+	 */
+	@SuppressWarnings("unchecked")
+	public <N extends Parent, C> View<N, C> create(String name) throws IOException {
+		Template template = template(name);
+		View<?, ?> view = template.reserve.poll();
+		if (view == null) {
+			return (View<N, C>) template.load();
+		}
+		template.refill(); // Remplace l'instance prise
+		return (View<N, C>) view;
+	}
+
+	/**
+	 * Construit d'avance de quoi porter la réserve de la vue {@code name} à {@code count}
+	 * instances, une par tâche {@link Platform#runLater} pour ne pas bloquer le thread JavaFX
+	 * le temps de toutes les construire
+	 */
+	public void prewarm(String name, int count) {
+		Template template = template(name);
+		template.target = count;
+		template.refill();
+	}
+
+	private Template template(String name) {
+		return templates.computeIfAbsent(name, Template::new);
+	}
+
+	private Object createController(Class<?> type) {
+		return controllers.computeIfAbsent(type, ViewFactory::defaultFactory).get();
+	}
+
+	private static Supplier<?> defaultFactory(Class<?> type) {
+		try {
+			Constructor<?> constructor = type.getDeclaredConstructor();
+			return () -> {
+				try {
+					return constructor.newInstance();
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalStateException("Cannot create controller " + type.getName(), e);
+				}
+			};
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("No factory registered for controller " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Vue FXML : source lu une fois et réserve d'instances prêtes
+	 */
+	private final class Template {
+
+		private final String name;
+		private final URL location;
+		private byte[] source;
+		private final ArrayDeque<View<?, ?>> reserve = new ArrayDeque<>();
+		private int target;
+		private boolean refilling;
+
+		private Template(String name) {
+			this.name = name;
+			this.location = ViewFactory.class.getResource(PATH + name + ".fxml");
+		}
+
+		private View<?, ?> load() throws IOException {
+			if (location == null) {
+				throw new IOException("Ressource FXML introuvable : " + PATH + name + ".fxml");
+			}
+			if (source == null) {
+				try (InputStream in = location.openStream()) {
+					source = in.readAllBytes();
+				}
+			}
+			FXMLLoader loader = new FXMLLoader();
+			loader.setLocation(location); // Résolution des chemins en @
+			loader.setControllerFactory(ViewFactory.this::createController);
+			Parent root = loader.load(new ByteArrayInputStream(source));
+			return new View<>(root, loader.getController());
+		}
+
+		private void refill() {
+			if (refilling || reserve.size() >= target) {
+				return;
+			}
+			refilling = true;
+			Platform.runLater(() -> {
+				refilling = false;
+				try {
+					reserve.add(load());
+				} catch (IOException e) {
+					System.err.println("Erreur lors du préchargement de la vue " + name + " : " + e.getMessage());
+					target = 0;
+					return;
+				}
+				refill();
+			});
+		}
+	}
+}
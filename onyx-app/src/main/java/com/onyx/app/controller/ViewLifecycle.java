@@ -0,0 +1,33 @@
+package com.onyx.app.controller;
+
+/**
+ * Contrôleur d'un écran conservé entre deux navigations : l'écran n'est chargé qu'une fois,
+ * puis activé à chaque affichage et désactivé quand un autre écran prend sa place.
+ *
+ * Un écran caché reste dans la scène, masqué : la désactivation sert à suspendre son affichage
+ * (ticks par seconde, boîtes de dialogue ouvertes), l'activation à rattraper ce qui a changé
+ * entre-temps.
+ */
+public interface ViewLifecycle {
+
+    /**
+     * Appelée quand l'écran est affiché, y compris la première fois
+     */
+    default void onActivate() {
+    }
+
+    /**
+     * Appelée quand l'écran est remplacé par un autre
+     */
+    default void onDeactivate() {
+    }
+
+    /**
+     * Indique si l'écran caché doit être conservé même en cas de manque de mémoire : ses timers
+     * doivent encore pouvoir finir et sonner. Sinon il peut être libéré, puis rechargé à la
+     * prochaine navigation.
+     */
+    default boolean keepAlive() {
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.onyx.app.controller;
+
+import java.util.function.Consumer;
+
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * Suit la visibilité réelle d'une vue : attachée à une scène, dans une fenêtre affichée et non
+ * réduite. Les contrôleurs de timers s'en servent pour n'écouter les ticks par seconde que
+ * lorsque l'utilisateur peut voir le décompte.
+ */
+final class ViewVisibility {
+
+    private ViewVisibility() {
+    }
+
+    /**
+     * Appelle {@code onChange} avec la visibilité courante, puis à chaque changement.
+     * La valeur retournée doit être conservée tant que le suivi est utile.
+     */
+    static ObservableValue<Boolean> track(Node node, Consumer<Boolean> onChange) {
+        ObservableValue<Boolean> visible = node.sceneProperty()
+                .flatMap(Scene::windowProperty)
+                .flatMap(window -> window instanceof Stage stage
+                        ? stage.showingProperty().flatMap(showing ->
+                                stage.iconifiedProperty().map(iconified -> showing && !iconified))
+                        : window.showingProperty())
+                .orElse(false);
+        visible.addListener((observable, wasVisible, isVisible) -> onChange.accept(isVisible));
+        onChange.accept(visible.getValue());
+        return visible;
+    }
+}
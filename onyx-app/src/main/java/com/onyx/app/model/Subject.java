@@ -117,6 +117,7 @@ public class Subject {
     public void setId(String id) { this.id = id; }
     public String getName() { return name; }
     public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
     public Duration getTargetTime() { return targetTime; }
     public Duration getTimeSpent() { return timeSpent; }
     public void setTimeSpent(Duration timeSpent) { this.timeSpent = timeSpent; }
@@ -0,0 +1,29 @@
+package com.onyx.app.model;
+
+/**
+ * Source de temps des timers.
+ *
+ * Le temps monotone mesure les durées écoulées, l'heure murale sert à caler les ticks sur les
+ * secondes affichées. Une horloge de test peut remplacer {@link #SYSTEM} pour simuler des
+ * heures de décompte sans attendre.
+ */
+public interface TimerClock {
+
+    TimerClock SYSTEM = new TimerClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /** Temps monotone, en nanosecondes, d'origine arbitraire. */
+    long nanoTime();
+
+    /** Heure murale, en millisecondes depuis l'époque Unix. */
+    long currentTimeMillis();
+}
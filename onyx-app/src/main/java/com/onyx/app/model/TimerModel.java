@@ -1,14 +1,20 @@
 package com.onyx.app.model;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class TimerModel {
+public final class TimerModel {
     @JsonCreator
     public TimerModel(
             @JsonProperty("id") String id,
@@ -19,24 +25,42 @@ public class TimerModel {
             @JsonProperty("initMinutes") Byte initMinutes,
             @JsonProperty("initSeconds") Byte initSeconds,
             @JsonProperty("timerType") TimerType timerType,
-            @JsonProperty("linkedSubject") Subject linkedSubject) {
+            @JsonProperty("subjectId") String subjectId,
+            @JsonProperty("linkedSubject") Subject linkedSubject,
+            @JsonProperty("stopwatch") boolean stopwatch,
+            @JsonProperty("elapsedNanos") long elapsedNanos) {
         this.id = id;
-        this.hours = hours;
-        this.minutes = minutes;
-        this.seconds = seconds;
         this.timerType = timerType;
+        // Anciens fichiers : sujet complet embarqué, remplacé par l'instance partagée au chargement
         this.linkedSubject = linkedSubject;
+        this.subjectId = subjectId != null ? subjectId : (linkedSubject != null ? linkedSubject.getId() : null);
 
-        // For backward compatibility with old JSON files without init values
-        if (initHours == null || initMinutes == null || initSeconds == null) {
-            this.initHours = hours;
-            this.initMinutes = minutes;
-            this.initSeconds = seconds;
+        if (stopwatch) {
+            this.slot = STORE.allocateStopwatch(elapsedNanos / 1_000L);
         } else {
-            this.initHours = initHours;
-            this.initMinutes = initMinutes;
-            this.initSeconds = initSeconds;
+            int total = toSeconds(hours, minutes, seconds);
+            // For backward compatibility with old JSON files without init values
+            int init = (initHours == null || initMinutes == null || initSeconds == null)
+                    ? total
+                    : toSeconds(initHours, initMinutes, initSeconds);
+            this.slot = STORE.allocate(init, total);
         }
+        this.creditedNanos = getElapsedNanos(); // Temps déjà crédité avant l'enregistrement
+    }
+
+    public TimerModel(String id, byte hours, byte minutes, byte seconds,
+                      Byte initHours, Byte initMinutes, Byte initSeconds,
+                      TimerType timerType, String subjectId, Subject linkedSubject) {
+        this(id, hours, minutes, seconds, initHours, initMinutes, initSeconds, timerType, subjectId, linkedSubject,
+                false, 0L);
+    }
+
+    /**
+     * Chronomètre à zéro : compte le temps écoulé sans limite ni fin, pour une session ouverte.
+     */
+    public static TimerModel stopwatch(TimerType timerType, Subject linkedSubject) {
+        return new TimerModel(UUID.randomUUID().toString(), (byte) 0, (byte) 0, (byte) 0, null, null, null,
+                timerType, null, linkedSubject, true, 0L);
     }
 
     private String id;
@@ -65,15 +89,43 @@ public class TimerModel {
         }
     }
 
-    private byte minutes;
-    private byte seconds;
-    private byte hours;
-    private final byte initMinutes;
-    private final byte initSeconds;
-    private final byte initHours;
+    /**
+     * Manière dont le temps restant est mesuré pendant que le timer tourne.
+     */
+    public enum TimingMode {
+        /** Une seconde retirée à chaque tick : un tick manqué ou retardé devient une dérive définitive. */
+        TICK,
+        /** Temps écoulé mesuré sur l'horloge monotone : le restant est recalculé à chaque lecture. */
+        MONOTONIC
+    }
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int MAX_TOTAL_SECONDS = 99 * 3600 + 59 * 60 + 59;
+    // Tours conservés : au-delà, les plus anciens sont écrasés
+    private static final int MAX_LAPS = 99;
+
+    // Durées, échéance et état vivent dans le TimerStore : ce modèle n'est qu'une vue sur son slot,
+    // rendu par release() quand le timer disparaît
+    private static final TimerStore STORE = TimerStore.shared();
+    private final int slot;
+    private boolean released; // Sous le verrou du modèle
 
     private TimerType timerType;
     private Subject linkedSubject;
+    private String subjectId; // Référence persistée, résolue via SubjectRepository.attach()
+
+    private volatile TimerClock clock = TimerClock.SYSTEM;
+    // Instant mural (ms epoch) du décompte en cours, 0 à l'arrêt : échéance d'un compte à rebours,
+    // origine d'un chronomètre. Écrit au démarrage et à la pause, il suffit à reprendre le
+    // décompte après un redémarrage ou un plantage
+    private volatile long deadlineEpochMillis;
+
+    // Temps écoulé déjà crédité au cours lié (sous le verrou du modèle)
+    private long creditedNanos;
+    // Tours : durées dans un anneau borné, alloué au premier tour (sous le verrou du modèle)
+    private long[] lapNanos;
+    private int lapCount;
+    private long lastSplitNanos;
 
     public TimerModel(byte hours, byte minutes, byte seconds) {
         this(UUID.randomUUID().toString(), hours, minutes, seconds, TimerType.FREE_SESSION, null);
@@ -89,86 +141,326 @@ public class TimerModel {
 
     public TimerModel(String id, byte hours, byte minutes, byte seconds, TimerType timerType, Subject linkedSubject) {
         this.id = id;
-        this.hours = hours;
-        this.minutes = minutes;
-        this.seconds = seconds;
-        convertAndClamp();
-        this.initMinutes = this.minutes;
-        this.initSeconds = this.seconds;
-        this.initHours = this.hours;
+        int total = convertAndClamp(toSeconds(hours, minutes, seconds));
+        this.slot = STORE.allocate(total, total);
         this.timerType = timerType;
         this.linkedSubject = linkedSubject;
+        this.subjectId = linkedSubject != null ? linkedSubject.getId() : null;
+    }
+
+    private static int toSeconds(int hours, int minutes, int seconds) {
+        return hours * 3600 + minutes * 60 + seconds;
+    }
+
+    // Arrondi à la seconde supérieure, sans débordement pour le restant infini d'un chronomètre
+    private static long ceilSeconds(long nanos) {
+        return nanos / NANOS_PER_SECOND + (nanos % NANOS_PER_SECOND == 0 ? 0 : 1);
+    }
+
+    /**
+     * Les secondes et minutes au-delà de 59 sont reportées, puis le total est borné à 99:59:59.
+     */
+    private static int convertAndClamp(int totalSeconds) {
+        checkValue(totalSeconds);
+        return Math.min(totalSeconds, MAX_TOTAL_SECONDS);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid values: negative time not allowed");
+        }
     }
 
-    private void convertAndClamp() {
-        if (seconds > 59) {
-            minutes += (byte) (seconds / 60);
-            seconds = (byte) (seconds % 60);
+    /**
+     * Instantané cohérent de l'état du timer, tiré d'une seule lecture atomique : utilisable
+     * depuis n'importe quel thread sans jamais observer d'état intermédiaire.
+     */
+    public record Snapshot(long remainingNanos, long elapsedNanos, boolean running, boolean stopwatch,
+                           TimingMode timingMode, int version) {
+
+        public long remainingSeconds() {
+            return ceilSeconds(remainingNanos);
+        }
+
+        /**
+         * Temps affiché : restant d'un compte à rebours (seconde entamée comptée), écoulé d'un
+         * chronomètre (secondes complètes).
+         */
+        public long shownSeconds() {
+            return stopwatch ? elapsedNanos / NANOS_PER_SECOND : remainingSeconds();
+        }
+
+        // h/m/s sur un octet : un chronomètre au-delà de 99:59:59 est affiché borné
+        public byte hours() {
+            return (byte) (Math.min(shownSeconds(), MAX_TOTAL_SECONDS) / 3600);
         }
-        if (minutes > 59) {
-            hours += (byte) (minutes / 60);
-            minutes = (byte) (minutes % 60);
+
+        public byte minutes() {
+            return (byte) (Math.min(shownSeconds(), MAX_TOTAL_SECONDS) % 3600 / 60);
         }
-        
-        if (hours > 99) {
-            hours = 99;
-            minutes = 59;
-            seconds = 59;
+
+        public byte seconds() {
+            return (byte) (Math.min(shownSeconds(), MAX_TOTAL_SECONDS) % 60);
         }
-        
-        checkValue();
     }
 
-    private void checkValue() {
-        if (hours < 0 || minutes < 0 || seconds < 0) {
-            throw new IllegalArgumentException("Invalid values: negative time not allowed");
+    public Snapshot snapshot() {
+        long word = STORE.word(slot);
+        long now = clock.nanoTime();
+        boolean stopwatch = TimerStore.isStopwatch(word);
+        long remaining = TimerStore.remainingNanos(word, now);
+        long elapsed = stopwatch
+                ? TimerStore.stopwatchNanos(word, now)
+                : Math.max(0, STORE.getInitSeconds(slot) * NANOS_PER_SECOND - remaining);
+        return new Snapshot(remaining, elapsed, TimerStore.isRunning(word), stopwatch,
+                TimerStore.isTickMode(word) ? TimingMode.TICK : TimingMode.MONOTONIC, TimerStore.version(word));
+    }
+
+    /**
+     * Rend le slot du modèle au store, qui pourra le confier à un autre timer : le modèle ne doit
+     * plus servir ensuite. Appelée par le propriétaire du timer quand il disparaît (suppression,
+     * remplacement lors d'une reconfiguration) ; sans effet au second appel.
+     */
+    public synchronized void release() {
+        if (!released) {
+            released = true;
+            STORE.release(slot);
         }
     }
 
-    public void decrement() {
-        if (hours == 0 && minutes == 0 && seconds == 0) {
-            return;
+    /**
+     * Démarre le décompte : mesure du temps écoulé en mode MONOTONIC, ticks comptés en mode TICK.
+     */
+    public void start() {
+        if (STORE.start(slot, clock.nanoTime())) {
+            updateDeadline();
+        }
+    }
+
+    /**
+     * Arrête le décompte en figeant le restant exact.
+     */
+    public void pause() {
+        if (STORE.pause(slot, clock.nanoTime())) {
+            deadlineEpochMillis = 0;
+        }
+    }
+
+    /**
+     * Reprend un décompte persisté jusqu'à son échéance murale. Retourne false, avec un restant
+     * nul, si l'échéance est déjà passée : le timer s'est terminé pendant que l'application
+     * était fermée. Un chronomètre repart de son origine murale, fermeture comprise.
+     */
+    public boolean resumeUntil(long deadlineEpochMillis) {
+        long remainingMillis = deadlineEpochMillis - clock.currentTimeMillis();
+        long now = clock.nanoTime();
+        STORE.pause(slot, now);
+        if (isStopwatch()) {
+            STORE.restore(slot, Math.max(0, -remainingMillis) * 1000L, now);
+            start();
+            return true;
         }
-        if (seconds > 0) {
-            seconds--;
+        if (remainingMillis <= 0) {
+            STORE.rebase(slot, 0, now);
+            this.deadlineEpochMillis = 0;
+            return false;
+        }
+        STORE.restore(slot, Math.min(remainingMillis, MAX_TOTAL_SECONDS * 1000L) * 1000L, now);
+        start();
+        return true;
+    }
+
+    private void updateDeadline() {
+        long word = STORE.word(slot);
+        long now = clock.nanoTime();
+        if (!TimerStore.isRunning(word)) {
+            deadlineEpochMillis = 0;
+        } else if (TimerStore.isStopwatch(word)) {
+            deadlineEpochMillis = clock.currentTimeMillis() - TimerStore.stopwatchNanos(word, now) / 1_000_000L;
         } else {
-            seconds = 59;
-            if (minutes > 0) {
-                minutes--;
-            } else {
-                minutes = 59;
-                if (hours > 0) {
-                    hours--;
-                }
-            }
+            deadlineEpochMillis = clock.currentTimeMillis() + TimerStore.remainingNanos(word, now) / 1_000_000L;
         }
     }
 
+    /**
+     * Échéance murale du décompte en cours (ms depuis l'epoch), origine pour un chronomètre ;
+     * 0 si le timer est arrêté.
+     */
+    @JsonProperty("deadlineEpochMillis")
+    public long getDeadlineEpochMillis() {
+        return deadlineEpochMillis;
+    }
+
+    /**
+     * Échéance relue depuis le stockage : le timer reste arrêté jusqu'à {@link #resumeUntil(long)}.
+     */
+    @JsonProperty("deadlineEpochMillis")
+    public void setDeadlineEpochMillis(long deadlineEpochMillis) {
+        this.deadlineEpochMillis = deadlineEpochMillis;
+    }
+
+    @JsonIgnore
+    public boolean isRunning() {
+        return STORE.isRunning(slot);
+    }
+
+    /**
+     * Temps restant exact, indépendant de la fréquence des ticks ; {@code Long.MAX_VALUE} pour
+     * un chronomètre.
+     */
+    @JsonIgnore
+    public long getRemainingNanos() {
+        return STORE.remainingNanos(slot, clock.nanoTime());
+    }
+
+    @JsonProperty("stopwatch")
+    public boolean isStopwatch() {
+        return TimerStore.isStopwatch(STORE.word(slot));
+    }
+
+    /**
+     * Temps écoulé depuis le départ, en nanosecondes : sans limite pour un chronomètre.
+     */
+    @JsonProperty("elapsedNanos")
+    public long getElapsedNanos() {
+        return STORE.elapsedNanos(slot, clock.nanoTime());
+    }
+
+    /**
+     * Temps écoulé pas encore crédité au cours lié, marqué comme crédité. Appelé aux points de
+     * contrôle (pause, arrêt, fin, puis à intervalle borné pendant le décompte).
+     */
+    public synchronized Duration takeUncreditedTime() {
+        long elapsed = getElapsedNanos();
+        long uncredited = elapsed - creditedNanos;
+        creditedNanos = elapsed;
+        return Duration.ofNanos(Math.max(0, uncredited));
+    }
+
+    /**
+     * Enregistre un tour au temps écoulé courant et retourne sa durée. Seuls les
+     * {@value #MAX_LAPS} derniers tours sont conservés, dans un tableau de taille fixe.
+     */
+    public synchronized Duration lap() {
+        long split = getElapsedNanos();
+        long lap = Math.max(0, split - lastSplitNanos);
+        lastSplitNanos = split;
+        if (lapNanos == null) {
+            lapNanos = new long[MAX_LAPS];
+        }
+        lapNanos[lapCount % MAX_LAPS] = lap;
+        lapCount++;
+        return Duration.ofNanos(lap);
+    }
+
+    /**
+     * Durées des tours conservés, du plus ancien au plus récent.
+     */
+    @JsonIgnore
+    public synchronized List<Duration> getLaps() {
+        int kept = Math.min(lapCount, MAX_LAPS);
+        List<Duration> laps = new ArrayList<>(kept);
+        for (int i = lapCount - kept; i < lapCount; i++) {
+            laps.add(Duration.ofNanos(lapNanos[i % MAX_LAPS]));
+        }
+        return laps;
+    }
+
+    /**
+     * Nombre de tours enregistrés depuis le départ, y compris ceux qui ne sont plus conservés.
+     */
+    @JsonIgnore
+    public synchronized int getLapCount() {
+        return lapCount;
+    }
+
+    /**
+     * Appelé à chaque tick : retire une seconde en mode TICK. En mode MONOTONIC le restant est
+     * toujours lu en direct, il n'y a rien à recaler.
+     */
+    public void decrement() {
+        STORE.decrement(slot);
+    }
+
+    // h/m/s : temps affiché (restant arrondi à la seconde supérieure, écoulé d'un chronomètre).
+    // Chaque accesseur lit l'état une fois ; pour les trois ensemble, passer par snapshot()
+    @JsonIgnore
     public byte getMinutes() {
-        return minutes;
+        return snapshot().minutes();
     }
 
     public void setMinutes(byte minutes) {
-        this.minutes = minutes;
-        convertAndClamp();
+        setTime(getHours(), minutes, getSeconds());
     }
 
+    @JsonIgnore
     public byte getSeconds() {
-        return seconds;
+        return snapshot().seconds();
     }
 
     public void setSeconds(byte seconds) {
-        this.seconds = seconds;
-        convertAndClamp();
+        setTime(getHours(), getMinutes(), seconds);
     }
 
+    @JsonIgnore
     public byte getHours() {
-        return hours;
+        return snapshot().hours();
     }
 
     public void setHours(byte hours) {
-        this.hours = hours;
-        convertAndClamp();
+        setTime(hours, getMinutes(), getSeconds());
+    }
+
+    // Sérialisation : h/m/s issus d'une seule lecture, jamais un mélange de deux secondes
+    @JsonAnyGetter
+    private Map<String, Byte> getTime() {
+        Snapshot time = snapshot();
+        Map<String, Byte> fields = new LinkedHashMap<>();
+        fields.put("hours", time.hours());
+        fields.put("minutes", time.minutes());
+        fields.put("seconds", time.seconds());
+        return fields;
+    }
+
+    /**
+     * Les champs h/m/s modifiés deviennent la nouvelle base : le temps déjà écoulé y est intégré.
+     */
+    private void setTime(int hours, int minutes, int seconds) {
+        checkValue(hours);
+        checkValue(minutes);
+        checkValue(seconds);
+        STORE.rebase(slot, convertAndClamp(toSeconds(hours, minutes, seconds)), clock.nanoTime());
+        updateDeadline();
+        synchronized (this) {
+            creditedNanos = getElapsedNanos(); // Temps saisi, pas étudié
+        }
+    }
+
+    public TimingMode getTimingMode() {
+        return STORE.isTickMode(slot) ? TimingMode.TICK : TimingMode.MONOTONIC;
+    }
+
+    /**
+     * Change le mode de mesure ; le timer est arrêté, son restant conservé.
+     */
+    public void setTimingMode(TimingMode timingMode) {
+        if (STORE.setTickMode(slot, timingMode == TimingMode.TICK, clock.nanoTime())) {
+            deadlineEpochMillis = 0;
+        }
+    }
+
+    @JsonIgnore
+    public TimerClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Change l'horloge de mesure ; un segment en cours est d'abord clos sur l'ancienne horloge.
+     */
+    @JsonIgnore
+    public void setClock(TimerClock clock) {
+        STORE.retime(slot, this.clock.nanoTime(), clock.nanoTime());
+        this.clock = clock;
     }
 
     public TimerType getTimerType() {
@@ -179,26 +471,48 @@ public class TimerModel {
         this.timerType = timerType;
     }
 
+    @JsonIgnore
     public Subject getLinkedSubject() {
         return linkedSubject;
     }
 
     public void setLinkedSubject(Subject linkedSubject) {
         this.linkedSubject = linkedSubject;
+        this.subjectId = linkedSubject != null ? linkedSubject.getId() : null;
     }
 
-    public void reset() {
-        hours = initHours;
-        minutes = initMinutes;
-        seconds = initSeconds;
+    /**
+     * Identifiant du cours lié : seule référence écrite dans timers.json.
+     */
+    @JsonProperty("subjectId")
+    public String getSubjectId() {
+        return linkedSubject != null ? linkedSubject.getId() : subjectId;
+    }
+
+    /**
+     * Revient à la durée initiale (un chronomètre à zéro) et efface les tours. Le temps écoulé
+     * non crédité est perdu : le créditer avant avec {@link #takeUncreditedTime()}.
+     */
+    public synchronized void reset() {
+        STORE.reset(slot);
+        deadlineEpochMillis = 0;
+        creditedNanos = 0;
+        lapCount = 0;
+        lastSplitNanos = 0;
     }
 
     public boolean isFinished() {
-        return hours == 0 && minutes == 0 && seconds == 0;
+        return getRemainingNanos() == 0;
     }
 
     public boolean isInitialValue() {
-        return minutes == initMinutes && seconds == initSeconds && hours == initHours;
+        long word = STORE.word(slot);
+        if (TimerStore.isRunning(word)) {
+            return false;
+        }
+        return TimerStore.isStopwatch(word)
+                ? TimerStore.stopwatchNanos(word, 0) == 0
+                : TimerStore.remainingNanos(word, 0) == STORE.getInitSeconds(slot) * NANOS_PER_SECOND;
     }
 
     public String getId() {
@@ -214,31 +528,29 @@ public class TimerModel {
      * @return La durée initiale sous forme d'objet Duration.
      */
     public Duration getInitialDuration() {
-        return Duration.ofHours(this.initHours)
-                       .plusMinutes(this.initMinutes)
-                       .plusSeconds(this.initSeconds);
+        return Duration.ofSeconds(STORE.getInitSeconds(slot));
     }
 
     @JsonProperty("initHours")
     public byte getInitHours() {
-        return initHours;
+        return (byte) (STORE.getInitSeconds(slot) / 3600);
     }
 
     @JsonProperty("initMinutes")
     public byte getInitMinutes() {
-        return initMinutes;
+        return (byte) (STORE.getInitSeconds(slot) % 3600 / 60);
     }
 
     @JsonProperty("initSeconds")
     public byte getInitSeconds() {
-        return initSeconds;
+        return (byte) (STORE.getInitSeconds(slot) % 60);
     }
 
     /**
-     * Retourne le temps restant en secondes totales
+     * Retourne le temps restant en secondes totales (exact à tout instant en mode MONOTONIC)
      */
     public long getRemainingSeconds() {
-        return (long)hours * 3600 + (long)minutes * 60 + (long)seconds;
+        return ceilSeconds(getRemainingNanos());
     }
     
-}
\ No newline at end of file
+}
@@ -0,0 +1,364 @@
+package com.onyx.app.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * État de décompte de tous les timers, rangé en tableaux parallèles de primitifs.
+ *
+ * Chaque timer occupe un slot. Tout son état variable tient dans un seul mot de 64 bits d'un
+ * {@link AtomicLongArray} : indicateurs (en cours, mode TICK, chronomètre), numéro de version et
+ * une valeur en microsecondes. Pour un compte à rebours, c'est le restant à l'arrêt ou l'échéance
+ * monotone pendant le décompte ; pour un chronomètre, le temps écoulé à l'arrêt ou son origine
+ * monotone (instant où il valait zéro) pendant le décompte. Démarrer,
+ * mettre en pause, décompter ou réinitialiser sont des compare-and-set sur ce mot : aucun
+ * verrou, et un autre thread (sauvegarde, statistiques) lit toujours un état cohérent en une
+ * seule lecture. La version change à chaque transition, ce qui permet de détecter qu'un état
+ * lu a été modifié depuis. Parcourir des milliers de timers reste un balayage de mémoire
+ * contiguë sans allocation. {@link TimerModel} n'est qu'une vue sur un slot, libéré
+ * explicitement par {@link TimerModel#release()} quand le timer disparaît.
+ *
+ * Les slots sont groupés en segments de taille fixe qui ne sont jamais recopiés : agrandir le
+ * store n'ajoute qu'un segment, sans risque de perdre une écriture faite en parallèle sur un
+ * slot existant. L'allocation et la libération sont synchronisées ; un thread qui reçoit une
+ * vue après son allocation (publication sûre) voit le segment de son slot.
+ */
+public final class TimerStore {
+
+    private static final long NANOS_PER_MICRO = 1_000L;
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // Mot d'état : [RUNNING:1][TICK:1][STOPWATCH:1][version:15][valeur:46]. À l'arrêt ou en mode
+    // TICK, la valeur est le restant (ou l'écoulé d'un chronomètre) en µs ; pendant un décompte
+    // MONOTONIC, un instant (µs, modulo 2^46) : échéance ou origine. Restant et écoulé s'en
+    // déduisent par différence signée, valable à ±1 an
+    private static final long RUNNING = 1L << 63;
+    private static final long TICK_MODE = 1L << 62;
+    private static final long STOPWATCH = 1L << 61;
+    private static final int VALUE_BITS = 46;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final int VERSION_SHIFT = VALUE_BITS;
+    private static final long VERSION_MASK = 0x7FFFL;
+
+    private static final TimerStore SHARED = new TimerStore();
+
+    private static final class Segment {
+        final AtomicLongArray words = new AtomicLongArray(SEGMENT_SIZE);
+        final int[] initSeconds = new int[SEGMENT_SIZE];  // Fixe pour la durée de vie du slot
+        final byte[] allocated = new byte[SEGMENT_SIZE];  // Sous le verrou du store
+    }
+
+    private Segment[] segments = new Segment[0];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int capacity;
+    private int used;
+
+    /**
+     * Store commun à tous les {@link TimerModel} de l'application.
+     */
+    public static TimerStore shared() {
+        return SHARED;
+    }
+
+    public int allocate(int initSeconds, int baseSeconds) {
+        return allocate(initSeconds, baseSeconds * MICROS_PER_SECOND);
+    }
+
+    /**
+     * Slot de chronomètre, arrêté à {@code elapsedMicros}.
+     */
+    public int allocateStopwatch(long elapsedMicros) {
+        return allocate(0, STOPWATCH | Math.min(Math.max(0, elapsedMicros), VALUE_MASK));
+    }
+
+    private synchronized int allocate(int initSeconds, long word) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (capacity == segments.length * SEGMENT_SIZE) {
+                Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+                grown[segments.length] = new Segment();
+                segments = grown;
+            }
+            slot = capacity++;
+        }
+        Segment segment = segment(slot);
+        int index = slot & SEGMENT_MASK;
+        segment.initSeconds[index] = initSeconds;
+        segment.allocated[index] = 1;
+        segment.words.set(index, word);
+        used++;
+        return slot;
+    }
+
+    public synchronized void release(int slot) {
+        Segment segment = segment(slot);
+        if (segment.allocated[slot & SEGMENT_MASK] == 0) {
+            return;
+        }
+        segment.allocated[slot & SEGMENT_MASK] = 0;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        used--;
+    }
+
+    /**
+     * Nombre de slots occupés.
+     */
+    public synchronized int size() {
+        return used;
+    }
+
+    /**
+     * Nombre de slots déjà créés, occupés ou libres.
+     */
+    public synchronized int capacity() {
+        return capacity;
+    }
+
+    private Segment segment(int slot) {
+        return segments[slot >>> SEGMENT_BITS];
+    }
+
+    // ========================================
+    // LECTURE DU MOT D'ÉTAT
+    // ========================================
+
+    /**
+     * Mot d'état courant du slot : une seule lecture volatile, à décoder avec les méthodes statiques.
+     */
+    public long word(int slot) {
+        return segment(slot).words.get(slot & SEGMENT_MASK);
+    }
+
+    public static boolean isRunning(long word) {
+        return (word & RUNNING) != 0;
+    }
+
+    public static boolean isTickMode(long word) {
+        return (word & TICK_MODE) != 0;
+    }
+
+    public static boolean isStopwatch(long word) {
+        return (word & STOPWATCH) != 0;
+    }
+
+    public static int version(long word) {
+        return (int) ((word >>> VERSION_SHIFT) & VERSION_MASK);
+    }
+
+    /**
+     * Restant exact décrit par {@code word} à l'instant {@code now} (nanosecondes monotones) ;
+     * {@code Long.MAX_VALUE} pour un chronomètre, qui ne se termine jamais.
+     */
+    public static long remainingNanos(long word, long now) {
+        if (isStopwatch(word)) {
+            return Long.MAX_VALUE;
+        }
+        return heldMicros(word, now) * NANOS_PER_MICRO;
+    }
+
+    /**
+     * Temps écoulé d'un chronomètre décrit par {@code word} à l'instant {@code now}.
+     */
+    public static long stopwatchNanos(long word, long now) {
+        return heldMicros(word, now) * NANOS_PER_MICRO;
+    }
+
+    // Valeur que le mot aurait à l'arrêt : restant d'un compte à rebours, écoulé d'un chronomètre
+    private static long heldMicros(long word, long now) {
+        long value = word & VALUE_MASK;
+        if ((word & (RUNNING | TICK_MODE)) != RUNNING) {
+            return value;
+        }
+        long micros = isStopwatch(word) ? wrap(now / NANOS_PER_MICRO - value) : wrap(value - now / NANOS_PER_MICRO);
+        return Math.max(0, micros);
+    }
+
+    // Instant porté par le mot pendant un décompte MONOTONIC : échéance ou origine
+    private static long runningValue(long word, long heldMicros, long now) {
+        return isStopwatch(word) ? now / NANOS_PER_MICRO - heldMicros : now / NANOS_PER_MICRO + heldMicros;
+    }
+
+    // Différence modulo 2^46 ramenée dans [-2^45, 2^45[
+    private static long wrap(long micros) {
+        return (micros << (64 - VALUE_BITS)) >> (64 - VALUE_BITS);
+    }
+
+    // Mot suivant : nouvelle version, le type (chronomètre ou non) ne change jamais
+    private static long next(long word, long flags, long value) {
+        long version = (((word >>> VERSION_SHIFT) & VERSION_MASK) + 1) & VERSION_MASK;
+        return flags | (word & STOPWATCH) | (version << VERSION_SHIFT) | (value & VALUE_MASK);
+    }
+
+    public long remainingNanos(int slot, long now) {
+        return remainingNanos(word(slot), now);
+    }
+
+    public boolean isRunning(int slot) {
+        return isRunning(word(slot));
+    }
+
+    public boolean isTickMode(int slot) {
+        return isTickMode(word(slot));
+    }
+
+    /**
+     * Temps écoulé depuis le départ : celui du chronomètre, ou durée initiale moins restant.
+     */
+    public long elapsedNanos(int slot, long now) {
+        long word = word(slot);
+        if (isStopwatch(word)) {
+            return stopwatchNanos(word, now);
+        }
+        return Math.max(0, getInitSeconds(slot) * MICROS_PER_SECOND * NANOS_PER_MICRO - remainingNanos(word, now));
+    }
+
+    public int getInitSeconds(int slot) {
+        return segment(slot).initSeconds[slot & SEGMENT_MASK];
+    }
+
+    // ========================================
+    // TRANSITIONS (compare-and-set)
+    // ========================================
+
+    /**
+     * Démarre le décompte ; en mode MONOTONIC l'échéance est fixée à maintenant + restant
+     * (l'origine d'un chronomètre à maintenant - écoulé). Retourne false si le timer tournait déjà.
+     */
+    public boolean start(int slot, long now) {
+        AtomicLongArray words = segment(slot).words;
+        int index = slot & SEGMENT_MASK;
+        while (true) {
+            long word = words.get(index);
+            if (isRunning(word)) {
+                return false;
+            }
+            long value = word & VALUE_MASK;
+            if (!isTickMode(word)) {
+                value = runningValue(word, value, now); // Restant -> échéance, écoulé -> origine
+            }
+            if (words.compareAndSet(index, word, next(word, RUNNING | (word & TICK_MODE), value))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Arrête le décompte en figeant le restant (ou l'écoulé) exact. Retourne false si le timer
+     * était arrêté.
+     */
+    public boolean pause(int slot, long now) {
+        AtomicLongArray words = segment(slot).words;
+        int index = slot & SEGMENT_MASK;
+        while (true) {
+            long word = words.get(index);
+            if (!isRunning(word)) {
+                return false;
+            }
+            if (words.compareAndSet(index, word, next(word, word & TICK_MODE, heldMicros(word, now)))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Mode TICK : retire une seconde au restant.
+     */
+    public void decrement(int slot) {
+        AtomicLongArray words = segment(slot).words;
+        int index = slot & SEGMENT_MASK;
+        while (true) {
+            long word = words.get(index);
+            long value = word & VALUE_MASK;
+            if (!isTickMode(word) || value == 0) {
+                return;
+            }
+            long flags = word & (RUNNING | TICK_MODE);
+            if (words.compareAndSet(index, word, next(word, flags, Math.max(0, value - MICROS_PER_SECOND)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Nouveau restant : un timer en cours repart de maintenant avec cette durée.
+     */
+    public void rebase(int slot, int baseSeconds, long now) {
+        restore(slot, baseSeconds * MICROS_PER_SECOND, now);
+    }
+
+    /**
+     * Comme {@link #rebase(int, int, long)}, à la microseconde près (reprise d'une échéance
+     * persistée) ; pour un chronomètre, {@code micros} est le nouveau temps écoulé.
+     */
+    public void restore(int slot, long micros, long now) {
+        AtomicLongArray words = segment(slot).words;
+        int index = slot & SEGMENT_MASK;
+        while (true) {
+            long word = words.get(index);
+            long flags = word & (RUNNING | TICK_MODE);
+            long value = flags == RUNNING ? runningValue(word, micros, now) : micros;
+            if (words.compareAndSet(index, word, next(word, flags, value))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reporte l'échéance d'un décompte en cours sur une autre horloge : {@code now} est
+     * l'instant courant de l'ancienne horloge, {@code newNow} celui de la nouvelle.
+     */
+    public void retime(int slot, long now, long newNow) {
+        AtomicLongArray words = segment(slot).words;
+        int index = slot & SEGMENT_MASK;
+        while (true) {
+            long word = words.get(index);
+            if ((word & (RUNNING | TICK_MODE)) != RUNNING) {
+                return;
+            }
+            long value = runningValue(word, heldMicros(word, now), newNow);
+            if (words.compareAndSet(index, word, next(word, RUNNING, value))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Arrête le timer et revient à sa durée initiale (un chronomètre à zéro) ; le mode est conservé.
+     */
+    public void reset(int slot) {
+        Segment segment = segment(slot);
+        int index = slot & SEGMENT_MASK;
+        long initMicros = segment.initSeconds[index] * MICROS_PER_SECOND; // 0 pour un chronomètre
+        while (true) {
+            long word = segment.words.get(index);
+            if (segment.words.compareAndSet(index, word, next(word, word & TICK_MODE, initMicros))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Change le mode de mesure ; le timer est arrêté, son restant figé. Un chronomètre reste
+     * toujours en MONOTONIC. Retourne true si un décompte en cours a été arrêté.
+     */
+    public boolean setTickMode(int slot, boolean tickMode, long now) {
+        AtomicLongArray words = segment(slot).words;
+        int index = slot & SEGMENT_MASK;
+        while (true) {
+            long word = words.get(index);
+            long flags = tickMode && !isStopwatch(word) ? TICK_MODE : 0;
+            if (words.compareAndSet(index, word, next(word, flags, heldMicros(word, now)))) {
+                return isRunning(word);
+            }
+        }
+    }
+}
@@ -1,12 +1,71 @@
 package com.onyx.app.repository;
 
 import com.onyx.app.model.Subject;
+import com.onyx.app.model.TimerModel;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface SubjectRepository {
     Subject save(Subject subject);
     Optional<Subject> findById(String id);
     List<Subject> findAll();
     void deleteById(String id);
+
+    /**
+     * Enregistre tous les éléments en une seule écriture.
+     */
+    default List<Subject> saveAll(Collection<Subject> subjects) {
+        transaction(repository -> subjects.forEach(repository::save));
+        return List.copyOf(subjects);
+    }
+
+    /**
+     * Supprime tous les éléments dont l'identifiant est donné, en une seule écriture.
+     */
+    default void deleteAll(Collection<String> ids) {
+        transaction(repository -> ids.forEach(repository::deleteById));
+    }
+
+    /**
+     * Exécute plusieurs opérations comme une seule unité : elles sont écrites ensemble à la fin.
+     * Les transactions imbriquées rejoignent la transaction englobante. Le repository reste
+     * verrouillé pendant {@code work} : n'y appeler que ce repository, jamais l'ordonnanceur
+     * des timers ni un autre repository.
+     */
+    default void transaction(Consumer<SubjectRepository> work) {
+        work.accept(this);
+    }
+
+    /**
+     * Relie le timer à l'instance unique du sujet qu'il référence, afin que chaque sujet n'existe
+     * qu'une fois en mémoire. Un sujet qui n'existe plus dans le repository est délié.
+     */
+    default void attach(TimerModel timer) {
+        String subjectId = timer.getSubjectId();
+        if (subjectId != null) {
+            timer.setLinkedSubject(findById(subjectId).orElse(null));
+        }
+    }
+
+    /**
+     * Indique si tous les sujets sont chargés. findAll() peut n'en retourner qu'une partie avant.
+     */
+    default boolean isLoaded() {
+        return true;
+    }
+
+    /**
+     * Exécute l'action une fois tous les sujets chargés (immédiatement si c'est déjà le cas).
+     * L'action peut être appelée depuis un thread d'arrière-plan.
+     */
+    default void whenLoaded(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * Écrit les modifications en attente et libère les ressources du repository.
+     */
+    default void close() {}
 }
@@ -1,8 +1,10 @@
 package com.onyx.app.repository;
 
 import com.onyx.app.model.TimerModel;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TimerRepository {
     TimerModel save(TimerModel timer);
@@ -10,4 +12,34 @@ public interface TimerRepository {
     List<TimerModel> findAll();
     void deleteById(String id);
     // Ajoutez d'autres méthodes si nécessaire, ex: findBySubjectId
+
+    /**
+     * Enregistre tous les éléments en une seule écriture.
+     */
+    default List<TimerModel> saveAll(Collection<TimerModel> timers) {
+        transaction(repository -> timers.forEach(repository::save));
+        return List.copyOf(timers);
+    }
+
+    /**
+     * Supprime tous les éléments dont l'identifiant est donné, en une seule écriture.
+     */
+    default void deleteAll(Collection<String> ids) {
+        transaction(repository -> ids.forEach(repository::deleteById));
+    }
+
+    /**
+     * Exécute plusieurs opérations comme une seule unité : elles sont écrites ensemble à la fin.
+     * Les transactions imbriquées rejoignent la transaction englobante. Le repository reste
+     * verrouillé pendant {@code work} : n'y appeler que ce repository, jamais l'ordonnanceur
+     * des timers ni un autre repository.
+     */
+    default void transaction(Consumer<TimerRepository> work) {
+        work.accept(this);
+    }
+
+    /**
+     * Écrit les modifications en attente et libère les ressources du repository.
+     */
+    default void close() {}
 }
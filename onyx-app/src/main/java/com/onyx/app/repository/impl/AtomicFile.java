@@ -0,0 +1,216 @@
+package com.onyx.app.repository.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
+
+/**
+ * Crash-safe replacement of a data file.
+ *
+ * New content is streamed to {@code <file>.tmp}, optionally fsynced, then renamed over the
+ * target; the previous generation is kept as {@code <file>.bak}. A crash mid-write therefore
+ * leaves either the old or the new file, never a truncated one. Reads fall back to the backup
+ * when the primary is missing or unreadable, and a corrupt primary is moved aside so the next
+ * write cannot replace the good backup with it.
+ */
+public class AtomicFile {
+
+    /**
+     * Durability of a write against power loss or an OS crash.
+     */
+    public enum FsyncPolicy {
+        /** Leave flushing to the OS: fastest, may lose the last writes on power loss. */
+        NONE,
+        /** fsync at most once per interval: bounded loss window, amortized cost. */
+        INTERVAL,
+        /** fsync the file and its directory on every write. */
+        ALWAYS
+    }
+
+    @FunctionalInterface
+    public interface StreamWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    public static final long DEFAULT_FSYNC_INTERVAL_MS = 30_000;
+
+    private static final DateTimeFormatter CORRUPT_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path file;
+    private final Path tempFile;
+    private final Path backupFile;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private long lastFsyncMillis;
+
+    public AtomicFile(Path file, FsyncPolicy fsyncPolicy) {
+        this(file, fsyncPolicy, DEFAULT_FSYNC_INTERVAL_MS);
+    }
+
+    public AtomicFile(Path file, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        this.backupFile = file.resolveSibling(file.getFileName() + ".bak");
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+    }
+
+    /**
+     * Replaces the file with the content produced by {@code writer}.
+     */
+    public synchronized void write(StreamWriter writer) throws IOException {
+        boolean fsync = shouldFsync();
+        try (FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            // Serializers close their target when done: keep the channel open until it is forced
+            writer.write(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+            out.flush();
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+
+        if (Files.exists(file)) {
+            Files.move(file, backupFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (fsync) {
+            fsyncDirectory();
+            lastFsyncMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Reads the file, falling back to the previous generation.
+     * @return the decoded content, or {@code empty.get()} if neither generation is readable
+     */
+    public synchronized <T> T read(StreamReader<T> reader, Supplier<T> empty) {
+        if (isPresent(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return reader.read(in);
+            } catch (IOException e) {
+                System.err.println("Error reading " + file.getFileName() + ": " + e.getMessage());
+                quarantine();
+            }
+        }
+        if (isPresent(backupFile)) {
+            try (InputStream in = Files.newInputStream(backupFile)) {
+                T content = reader.read(in);
+                System.err.println("Recovered " + file.getFileName() + " from previous generation");
+                return content;
+            } catch (IOException e) {
+                System.err.println("Error reading " + backupFile.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return empty.get();
+    }
+
+    /**
+     * Opens the file for streaming, falling back to the previous generation when the current one
+     * is missing or rejected by {@code opener}. The opener takes ownership of the stream.
+     * @return the opened reader, or null if neither generation is readable
+     */
+    public synchronized <T> T open(StreamReader<T> opener) {
+        if (isPresent(file)) {
+            T reader = open(file, opener);
+            if (reader != null) {
+                return reader;
+            }
+            quarantine();
+        }
+        if (isPresent(backupFile)) {
+            T reader = open(backupFile, opener);
+            if (reader != null) {
+                System.err.println("Recovered " + file.getFileName() + " from previous generation");
+                return reader;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T open(Path path, StreamReader<T> opener) {
+        InputStream in = null;
+        try {
+            in = Files.newInputStream(path);
+            return opener.read(in);
+        } catch (IOException e) {
+            System.err.println("Error reading " + path.getFileName() + ": " + e.getMessage());
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // Already failing
+                }
+            }
+            return null;
+        }
+    }
+
+    private boolean shouldFsync() {
+        return switch (fsyncPolicy) {
+            case NONE -> false;
+            case ALWAYS -> true;
+            case INTERVAL -> System.currentTimeMillis() - lastFsyncMillis >= fsyncIntervalMillis;
+        };
+    }
+
+    private void fsyncDirectory() {
+        try (FileChannel dir = FileChannel.open(file.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows): the file itself is already synced
+        }
+    }
+
+    /**
+     * Moves the current generation aside as {@code <file>.corrupt-<timestamp>}, so that the next
+     * write does not rotate a damaged file over the previous generation.
+     */
+    public synchronized void quarantine() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Path corrupt = file.resolveSibling(file.getFileName() + ".corrupt-" + LocalDateTime.now().format(CORRUPT_SUFFIX));
+        try {
+            Files.move(file, corrupt, StandardCopyOption.REPLACE_EXISTING);
+            System.err.println("Moved unreadable " + file.getFileName() + " to " + corrupt.getFileName());
+        } catch (IOException e) {
+            System.err.println("Error moving unreadable " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isPresent(Path path) {
+        try {
+            return Files.exists(path) && Files.size(path) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
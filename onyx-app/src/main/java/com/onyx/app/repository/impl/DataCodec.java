@@ -0,0 +1,71 @@
+package com.onyx.app.repository.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Encoding of the repository data files.
+ *
+ * Files are always read with the codec detected from their first bytes, so switching the
+ * write codec is transparent: the next save simply rewrites the file in the new format.
+ */
+public enum DataCodec {
+    /** Pretty-printed JSON, human-readable (default). */
+    JSON(new JsonFactory(), true),
+    /** Binary Smile encoding of the same data model: smaller and faster to parse. */
+    SMILE(new SmileFactory(), false);
+
+    // Every Smile document starts with ":)\n"
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final ObjectMapper mapper;
+
+    DataCodec(JsonFactory factory, boolean indent) {
+        this.mapper = new ObjectMapper(factory);
+        this.mapper.registerModule(new JavaTimeModule());
+        if (indent) {
+            this.mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        }
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public void write(OutputStream out, Object value) throws IOException {
+        mapper.writeValue(out, value);
+    }
+
+    /**
+     * Reads a list of entities, whatever the codec the file was written with.
+     */
+    public static <T> List<T> readList(InputStream in, Class<T> type) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        ObjectMapper mapper = detect(buffered).mapper;
+        return mapper.readValue(buffered, mapper.getTypeFactory().constructCollectionType(List.class, type));
+    }
+
+    /**
+     * Detects the codec from the first bytes of the stream without consuming them.
+     */
+    public static DataCodec detect(BufferedInputStream in) throws IOException {
+        in.mark(SMILE_HEADER.length);
+        byte[] header = in.readNBytes(SMILE_HEADER.length);
+        in.reset();
+        for (int i = 0; i < SMILE_HEADER.length; i++) {
+            if (i >= header.length || header[i] != SMILE_HEADER[i]) {
+                return JSON;
+            }
+        }
+        return SMILE;
+    }
+}
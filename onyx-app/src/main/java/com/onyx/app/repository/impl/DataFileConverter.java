@@ -0,0 +1,62 @@
+package com.onyx.app.repository.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-shot conversion of the data files between codecs.
+ *
+ * Usage: {@code DataFileConverter <JSON|SMILE> [file...]}. Without files, converts
+ * timers.json and subjects.json in ~/.onyx/data. The application must not be running.
+ */
+public final class DataFileConverter {
+
+    private DataFileConverter() {}
+
+    /**
+     * Rewrites {@code file} with {@code target}, keeping the previous content as the .bak generation.
+     */
+    public static void convert(Path file, DataCodec target) throws IOException {
+        JsonNode content;
+        try (BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            content = DataCodec.detect(in).mapper().readTree(in);
+        }
+        new AtomicFile(file, AtomicFile.FsyncPolicy.ALWAYS).write(out -> target.write(out, content));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: DataFileConverter <JSON|SMILE> [file...]");
+            System.exit(1);
+        }
+        DataCodec target = DataCodec.valueOf(args[0].toUpperCase());
+
+        List<Path> files = new ArrayList<>();
+        if (args.length > 1) {
+            for (int i = 1; i < args.length; i++) {
+                files.add(Paths.get(args[i]));
+            }
+        } else {
+            Path dataDir = Paths.get(System.getProperty("user.home"), ".onyx", "data");
+            files.add(dataDir.resolve("timers.json"));
+            files.add(dataDir.resolve("subjects.json"));
+        }
+
+        for (Path file : files) {
+            if (!Files.exists(file)) {
+                System.out.println("Skipping missing " + file);
+                continue;
+            }
+            long before = Files.size(file);
+            convert(file, target);
+            System.out.println(file + ": " + before + " -> " + Files.size(file) + " bytes (" + target + ")");
+        }
+    }
+}
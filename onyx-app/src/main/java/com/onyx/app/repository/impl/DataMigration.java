@@ -0,0 +1,79 @@
+package com.onyx.app.repository.impl;
+
+import com.onyx.app.model.Subject;
+import com.onyx.app.model.TimerModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * One-shot import of the JSON (or Smile) data files into the embedded SQL database.
+ *
+ * Usage: {@code DataMigration [dataDir]}, ~/.onyx/data by default. Rows are upserted by id in
+ * batched prepared statements within a single transaction, so the import can be run again
+ * safely. The source files are left untouched. The application must not be running.
+ */
+public final class DataMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private DataMigration() {}
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement statement, T entity) throws SQLException;
+    }
+
+    /**
+     * Imports subjects.json and timers.json from {@code dataDir} into {@code database}.
+     */
+    public static void migrate(Path dataDir, SqlDatabase database) throws IOException, SQLException {
+        List<Subject> subjects = readList(dataDir.resolve("subjects.json"), Subject.class);
+        List<TimerModel> timers = readList(dataDir.resolve("timers.json"), TimerModel.class);
+        database.inTransaction(connection -> {
+            insert(connection.prepareStatement(SqlSubjectRepository.UPSERT), subjects, SqlSubjectRepository::bind);
+            insert(connection.prepareStatement(SqlTimerRepository.UPSERT), timers, SqlTimerRepository::bind);
+        });
+        System.out.println("Imported " + subjects.size() + " subjects and " + timers.size() + " timers");
+    }
+
+    private static <T> List<T> readList(Path file, Class<T> type) throws IOException {
+        if (!Files.exists(file)) {
+            System.out.println("Skipping missing " + file);
+            return List.of();
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return DataCodec.readList(in, type);
+        }
+    }
+
+    private static <T> void insert(PreparedStatement statement, List<T> entities, RowBinder<T> binder) throws SQLException {
+        try (statement) {
+            int pending = 0;
+            for (T entity : entities) {
+                binder.bind(statement, entity);
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        Path dataDir = args.length > 0 ? Paths.get(args[0]) : Paths.get(System.getProperty("user.home"), ".onyx", "data");
+        try (SqlDatabase database = new SqlDatabase(dataDir.resolve("onyx"))) {
+            migrate(dataDir, database);
+        }
+    }
+}
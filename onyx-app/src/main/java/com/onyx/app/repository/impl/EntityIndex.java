@@ -0,0 +1,69 @@
+package com.onyx.app.repository.impl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Insertion-ordered id → entity index shared by the in-memory repositories.
+ *
+ * Lookups, saves and deletes are O(1). {@link #snapshot()} returns an immutable list that is
+ * only rebuilt after a structural change, so repeated findAll() calls between changes are free.
+ * Re-saving the same instance (the common case for a ticking timer) does not invalidate it.
+ *
+ * Not thread-safe: callers synchronize around it.
+ */
+public class EntityIndex<T> {
+
+    private final Function<T, String> idOf;
+    private final Map<String, T> entities = new LinkedHashMap<>();
+    private List<T> snapshot = List.of();
+
+    public EntityIndex(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Adds or replaces an entity. A replaced entity keeps its position.
+     * @return the previous entity with the same id, or null
+     */
+    public T put(T entity) {
+        T previous = entities.put(idOf.apply(entity), entity);
+        if (previous != entity) {
+            snapshot = null;
+        }
+        return previous;
+    }
+
+    public T remove(String id) {
+        T removed = entities.remove(id);
+        if (removed != null) {
+            snapshot = null;
+        }
+        return removed;
+    }
+
+    public T get(String id) {
+        return entities.get(id);
+    }
+
+    public int size() {
+        return entities.size();
+    }
+
+    public void clear() {
+        entities.clear();
+        snapshot = null;
+    }
+
+    /**
+     * Immutable view of the entities in insertion order.
+     */
+    public List<T> snapshot() {
+        if (snapshot == null) {
+            snapshot = List.copyOf(entities.values());
+        }
+        return snapshot;
+    }
+}
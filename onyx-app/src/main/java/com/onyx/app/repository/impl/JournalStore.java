@@ -0,0 +1,348 @@
+package com.onyx.app.repository.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of entity mutations, periodically folded into a snapshot.
+ *
+ * The snapshot is the regular {@code <name>.json} file written by the JSON repositories,
+ * the tail is a sequence of {@code <name>-<seq>.journal} segments holding one JSON record
+ * per line. Every mutation costs one small append; when the active segment grows past the
+ * compaction threshold it is sealed, a new segment is opened and a background thread writes
+ * a fresh snapshot then deletes the sealed segments.
+ *
+ * Records carry the full state of the entity, so replaying a sealed segment over a newer
+ * snapshot is harmless: a crash at any point of the compaction recovers the latest state.
+ */
+public class JournalStore<T> {
+
+    private static final String OP_PUT = "PUT";
+    private static final String OP_DELETE = "DEL";
+
+    private final Path dataDir;
+    private final String name;
+    private final Class<T> type;
+    private final Function<T, String> idOf;
+    private final int compactionThreshold;
+    private final ObjectMapper recordMapper;
+    private final DataCodec snapshotCodec;
+    private final AtomicFile snapshotFile;
+    private final Pattern segmentPattern;
+    private final EntityIndex<T> entities;
+    private final ExecutorService compactor;
+    private final Consumer<T> superseded;
+
+    private OutputStream segment;
+    private long segmentSeq;
+    private int recordsInSegment;
+    private ByteArrayOutputStream batch; // records of the running batch, appended in one write
+    private int recordsInBatch;
+
+    public JournalStore(Path dataDir, String name, Class<T> type, Function<T, String> idOf, int compactionThreshold) {
+        this(dataDir, name, type, idOf, compactionThreshold, AtomicFile.FsyncPolicy.INTERVAL, DataCodec.JSON);
+    }
+
+    public JournalStore(Path dataDir, String name, Class<T> type, Function<T, String> idOf, int compactionThreshold,
+                        AtomicFile.FsyncPolicy fsyncPolicy, DataCodec snapshotCodec) {
+        this(dataDir, name, type, idOf, compactionThreshold, fsyncPolicy, snapshotCodec, entity -> {});
+    }
+
+    /**
+     * @param superseded Called with each entity that recovery loads and then replaces or deletes
+     *                   while replaying the journal.
+     */
+    public JournalStore(Path dataDir, String name, Class<T> type, Function<T, String> idOf, int compactionThreshold,
+                        AtomicFile.FsyncPolicy fsyncPolicy, DataCodec snapshotCodec, Consumer<T> superseded) {
+        this.dataDir = dataDir;
+        this.name = name;
+        this.type = type;
+        this.idOf = idOf;
+        this.compactionThreshold = compactionThreshold;
+        this.entities = new EntityIndex<>(idOf);
+        this.recordMapper = new ObjectMapper();
+        this.recordMapper.registerModule(new JavaTimeModule());
+        this.snapshotCodec = snapshotCodec;
+        this.superseded = superseded;
+        this.snapshotFile = new AtomicFile(dataDir.resolve(name + ".json"), fsyncPolicy);
+        this.segmentPattern = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.journal");
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "onyx-" + name + "-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        recover();
+    }
+
+    /**
+     * Loads the snapshot, replays the journal segments in order and opens a fresh segment.
+     */
+    private void recover() {
+        try {
+            Files.createDirectories(dataDir);
+        } catch (IOException e) {
+            System.err.println("Error creating data directory: " + e.getMessage());
+        }
+
+        List<T> snapshot = snapshotFile.read(
+                in -> DataCodec.readList(in, type),
+                List::of);
+        snapshot.forEach(entities::put);
+
+        int replayed = 0;
+        List<Long> sequences = listSegments();
+        for (long seq : sequences) {
+            replayed += replaySegment(segmentFile(seq));
+        }
+        segmentSeq = sequences.isEmpty() ? 1 : sequences.get(sequences.size() - 1) + 1;
+        openSegment();
+
+        if (replayed >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    private int replaySegment(Path file) {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode record;
+                try {
+                    record = recordMapper.readTree(line);
+                } catch (IOException e) {
+                    // Torn write at the end of a segment after a crash: keep what precedes it
+                    System.err.println("Skipping corrupt journal record in " + file.getFileName());
+                    break;
+                }
+                String id = record.path("id").asText();
+                T previous = OP_DELETE.equals(record.path("op").asText())
+                        ? entities.remove(id)
+                        : entities.put(recordMapper.treeToValue(record.get("value"), type));
+                if (previous != null) {
+                    superseded.accept(previous);
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying journal " + file.getFileName() + ": " + e.getMessage());
+        }
+        return count;
+    }
+
+    public synchronized void put(T entity) {
+        String id = idOf.apply(entity);
+        entities.put(entity);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", OP_PUT);
+        record.put("id", id);
+        record.put("value", entity);
+        append(record);
+    }
+
+    public synchronized void remove(String id) {
+        if (entities.remove(id) == null) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("op", OP_DELETE);
+        record.put("id", id);
+        append(record);
+    }
+
+    public synchronized Optional<T> get(String id) {
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    public synchronized List<T> values() {
+        return entities.snapshot();
+    }
+
+    /**
+     * Runs {@code work} with its mutations buffered and appended to the journal in a single
+     * write at the end. Nested batches join the outer one.
+     */
+    public synchronized void batch(Runnable work) {
+        if (batch != null) {
+            work.run();
+            return;
+        }
+        batch = new ByteArrayOutputStream();
+        recordsInBatch = 0;
+        try {
+            work.run();
+        } finally {
+            byte[] records = batch.toByteArray();
+            int count = recordsInBatch;
+            batch = null;
+            if (count > 0) {
+                write(records, count);
+            }
+        }
+    }
+
+    private void append(Map<String, Object> record) {
+        if (segment == null) {
+            return;
+        }
+        byte[] line;
+        try {
+            line = recordMapper.writeValueAsBytes(record);
+        } catch (IOException e) {
+            System.err.println("Error appending to " + name + " journal: " + e.getMessage());
+            return;
+        }
+        if (batch != null) {
+            batch.write(line, 0, line.length);
+            batch.write('\n');
+            recordsInBatch++;
+            return;
+        }
+        byte[] buffer = new byte[line.length + 1];
+        System.arraycopy(line, 0, buffer, 0, line.length);
+        buffer[line.length] = '\n';
+        write(buffer, 1);
+    }
+
+    private void write(byte[] records, int count) {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.write(records);
+        } catch (IOException e) {
+            System.err.println("Error appending to " + name + " journal: " + e.getMessage());
+        }
+        recordsInSegment += count;
+        if (recordsInSegment >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Seals the active segment and folds everything up to it into a new snapshot in the background.
+     * The snapshot is serialized here, under the store lock: the entities are live objects that
+     * keep changing, and the bytes must match the segments they replace.
+     */
+    private synchronized void compact() {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try {
+            snapshotCodec.write(snapshot, entities.snapshot());
+        } catch (IOException e) {
+            // Nothing sealed: the active segment keeps every record until the next attempt
+            System.err.println("Error serializing " + name + " snapshot: " + e.getMessage());
+            return;
+        }
+        long sealedSeq = segmentSeq - 1;
+        if (segment != null) {
+            closeSegment();
+            sealedSeq = segmentSeq;
+            segmentSeq++;
+            openSegment();
+        }
+        long lastSealed = sealedSeq;
+        byte[] bytes = snapshot.toByteArray();
+        compactor.execute(() -> writeSnapshot(bytes, lastSealed));
+    }
+
+    private void writeSnapshot(byte[] snapshot, long lastSealedSeq) {
+        try {
+            snapshotFile.write(out -> out.write(snapshot));
+        } catch (IOException e) {
+            // Keep the sealed segments: they are replayed on next start
+            System.err.println("Error writing " + name + " snapshot: " + e.getMessage());
+            return;
+        }
+        for (long seq : listSegments()) {
+            if (seq <= lastSealedSeq) {
+                try {
+                    Files.deleteIfExists(segmentFile(seq));
+                } catch (IOException e) {
+                    System.err.println("Error deleting journal segment: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void openSegment() {
+        try {
+            segment = Files.newOutputStream(segmentFile(segmentSeq),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            recordsInSegment = 0;
+        } catch (IOException e) {
+            System.err.println("Error opening " + name + " journal: " + e.getMessage());
+        }
+    }
+
+    private void closeSegment() {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + name + " journal: " + e.getMessage());
+        }
+        segment = null;
+    }
+
+    private List<Long> listSegments() {
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dataDir)) {
+            files.forEach(file -> {
+                Matcher matcher = segmentPattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    sequences.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Error listing " + name + " journal: " + e.getMessage());
+        }
+        sequences.sort(null);
+        return sequences;
+    }
+
+    private Path segmentFile(long seq) {
+        return dataDir.resolve(String.format("%s-%06d.journal", name, seq));
+    }
+
+    /**
+     * Closes the active segment. Pending compactions are allowed to finish.
+     */
+    public void close() {
+        synchronized (this) {
+            if (segment != null) {
+                closeSegment();
+            }
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
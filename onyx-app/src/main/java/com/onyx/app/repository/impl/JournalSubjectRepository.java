@@ -0,0 +1,72 @@
+package com.onyx.app.repository.impl;
+
+import com.onyx.app.model.Subject;
+import com.onyx.app.repository.SubjectRepository;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * SubjectRepository backed by an append-only journal: each save or delete appends one record
+ * instead of rewriting subjects.json, which is only rebuilt by the background compaction.
+ */
+public class JournalSubjectRepository implements SubjectRepository {
+
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final JournalStore<Subject> store;
+
+    public JournalSubjectRepository() {
+        this(AtomicFile.FsyncPolicy.INTERVAL);
+    }
+
+    /**
+     * @param fsyncPolicy Durability of the subjects.json snapshots written by the compaction.
+     */
+    public JournalSubjectRepository(AtomicFile.FsyncPolicy fsyncPolicy) {
+        this(fsyncPolicy, DataCodec.JSON);
+    }
+
+    /**
+     * @param fsyncPolicy   Durability of the subjects.json snapshots written by the compaction.
+     * @param snapshotCodec Format of the snapshots; journal segments are always JSON lines.
+     */
+    public JournalSubjectRepository(AtomicFile.FsyncPolicy fsyncPolicy, DataCodec snapshotCodec) {
+        this.store = new JournalStore<>(Paths.get(System.getProperty("user.home"), ".onyx", "data"),
+                "subjects", Subject.class, Subject::getId, COMPACTION_THRESHOLD, fsyncPolicy, snapshotCodec);
+    }
+
+    @Override
+    public Subject save(Subject subject) {
+        store.put(subject);
+        return subject;
+    }
+
+    @Override
+    public Optional<Subject> findById(String id) {
+        return store.get(id);
+    }
+
+    @Override
+    public List<Subject> findAll() {
+        return store.values();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.remove(id);
+    }
+
+    @Override
+    public void transaction(Consumer<SubjectRepository> work) {
+        // Every record of the transaction is appended in a single write
+        store.batch(() -> work.accept(this));
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.onyx.app.repository.impl;
+
+import com.onyx.app.model.TimerModel;
+import com.onyx.app.repository.SubjectRepository;
+import com.onyx.app.repository.TimerRepository;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * TimerRepository backed by an append-only journal: each save or delete appends one record
+ * instead of rewriting timers.json, which is only rebuilt by the background compaction.
+ */
+public class JournalTimerRepository implements TimerRepository {
+
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final JournalStore<TimerModel> store;
+
+    public JournalTimerRepository(SubjectRepository subjectRepository) {
+        this(subjectRepository, AtomicFile.FsyncPolicy.INTERVAL);
+    }
+
+    /**
+     * @param subjectRepository Resolves the subject id stored with each timer to its shared instance.
+     * @param fsyncPolicy Durability of the timers.json snapshots written by the compaction.
+     */
+    public JournalTimerRepository(SubjectRepository subjectRepository, AtomicFile.FsyncPolicy fsyncPolicy) {
+        this(subjectRepository, fsyncPolicy, DataCodec.JSON);
+    }
+
+    /**
+     * @param subjectRepository Resolves the subject id stored with each timer to its shared instance.
+     * @param fsyncPolicy   Durability of the timers.json snapshots written by the compaction.
+     * @param snapshotCodec Format of the snapshots; journal segments are always JSON lines.
+     */
+    public JournalTimerRepository(SubjectRepository subjectRepository, AtomicFile.FsyncPolicy fsyncPolicy,
+                                  DataCodec snapshotCodec) {
+        this.store = new JournalStore<>(Paths.get(System.getProperty("user.home"), ".onyx", "data"),
+                "timers", TimerModel.class, TimerModel::getId, COMPACTION_THRESHOLD, fsyncPolicy, snapshotCodec,
+                TimerModel::release); // Older states of a replayed timer give their store slot back
+        // Snapshot and journal records only carry the subject id
+        for (TimerModel timer : store.values()) {
+            subjectRepository.attach(timer);
+        }
+    }
+
+    @Override
+    public TimerModel save(TimerModel timer) {
+        store.put(timer);
+        return timer;
+    }
+
+    @Override
+    public Optional<TimerModel> findById(String id) {
+        return store.get(id);
+    }
+
+    @Override
+    public List<TimerModel> findAll() {
+        return store.values();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.remove(id);
+    }
+
+    @Override
+    public void transaction(Consumer<TimerRepository> work) {
+        // Every record of the transaction is appended in a single write
+        store.batch(() -> work.accept(this));
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
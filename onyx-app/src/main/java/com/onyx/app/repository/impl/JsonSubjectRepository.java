@@ -1,32 +1,83 @@
 package com.onyx.app.repository.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onyx.app.model.Subject;
 import com.onyx.app.repository.SubjectRepository;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class JsonSubjectRepository implements SubjectRepository {
+
+    // Subjects available before the constructor returns, the rest is streamed in the background
+    private static final int FIRST_PAGE_SIZE = 50;
+    private static final int PAGE_SIZE = 500;
  
     private final String DATA_DIR;
     private final String FILE_PATH;
-    private final ObjectMapper objectMapper;
-    private List<Subject> subjects;
+    private final DataCodec codec;
+    private final AtomicFile dataFile;
+    private final EntityIndex<Subject> subjects = new EntityIndex<>(Subject::getId);
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    // Write-behind: changes are marked dirty and flushed at most once per window
+    private final long flushWindowMillis;
+    private final ScheduledExecutorService flushExecutor;
+    private final Object writeLock = new Object();
+    private ScheduledFuture<?> pendingFlush;
+    private boolean dirty;
+    // Snapshots are numbered under this object; an older one never overwrites a newer one on disk
+    private long snapshotSequence;
+    private long writtenSequence; // Guarded by writeLock
+
+    private int transactionDepth;
+    private boolean changedInTransaction;
 
     public JsonSubjectRepository() {
+        this(AtomicFile.FsyncPolicy.INTERVAL);
+    }
+
+    /**
+     * @param fsyncPolicy Durability of each write of subjects.json.
+     */
+    public JsonSubjectRepository(AtomicFile.FsyncPolicy fsyncPolicy) {
+        this(fsyncPolicy, DataCodec.JSON);
+    }
+
+    /**
+     * @param fsyncPolicy Durability of each write of subjects.json.
+     * @param codec       Format subjects.json is written in; any format is accepted on load.
+     */
+    public JsonSubjectRepository(AtomicFile.FsyncPolicy fsyncPolicy, DataCodec codec) {
+        this(Duration.ZERO, fsyncPolicy, codec);
+    }
+
+    /**
+     * @param flushWindow Duration over which changes are merged before being written to disk.
+     *                    {@code Duration.ZERO} writes the file on every change (write-through).
+     * @param fsyncPolicy Durability of each write of subjects.json.
+     * @param codec       Format subjects.json is written in; any format is accepted on load.
+     */
+    public JsonSubjectRepository(Duration flushWindow, AtomicFile.FsyncPolicy fsyncPolicy, DataCodec codec) {
         DATA_DIR = Paths.get(System.getProperty("user.home"), ".onyx", "data").toString();
         FILE_PATH = Paths.get(DATA_DIR, "subjects.json").toString();
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.dataFile = new AtomicFile(Paths.get(FILE_PATH), fsyncPolicy);
+        this.codec = codec;
+        this.flushWindowMillis = flushWindow.toMillis();
+        this.flushExecutor = flushWindowMillis > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "onyx-subjects-flush");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
         loadSubjects();
     }
 
@@ -36,58 +87,184 @@ public class JsonSubjectRepository implements SubjectRepository {
             dataDir.mkdirs();
         }
 
-        File file = new File(FILE_PATH);
-        if (file.exists() && file.length() > 0) {
+        // Falls back to the previous generation if subjects.json is missing or unreadable
+        StreamingLoader<Subject> loader = StreamingLoader.open(dataFile, Subject.class);
+        if (loader == null) {
+            loaded.complete(null);
+            return;
+        }
+        loader.loadInto(subjects::put, FIRST_PAGE_SIZE);
+        if (loader.isFinished()) {
+            finishLoading(loader);
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            while (!loader.isFinished()) {
+                synchronized (this) {
+                    loader.loadInto(subjects::put, PAGE_SIZE);
+                }
+            }
+            finishLoading(loader);
+        }, "onyx-subjects-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void finishLoading(StreamingLoader<Subject> loader) {
+        loader.close();
+        if (loader.isCorrupt()) {
+            // Keep the readable subjects, set the damaged file aside
+            dataFile.quarantine();
+        }
+        loaded.complete(null);
+    }
+
+    /**
+     * Blocks until the whole file is loaded: writes and misses must see every subject.
+     */
+    private void awaitLoaded() {
+        loaded.join();
+    }
+
+    private void saveSubjects() {
+        if (transactionDepth > 0) {
+            changedInTransaction = true; // Written once when the outermost transaction ends
+            return;
+        }
+        if (flushExecutor == null || flushExecutor.isShutdown()) {
+            writeSubjects(subjects.snapshot(), ++snapshotSequence);
+            return;
+        }
+        dirty = true;
+        if (pendingFlush == null) {
+            pendingFlush = flushExecutor.schedule(this::flush, flushWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeSubjects(List<Subject> snapshot, long sequence) {
+        synchronized (writeLock) {
+            if (sequence <= writtenSequence) {
+                return; // A newer snapshot was written while this one waited for the lock
+            }
+            writtenSequence = sequence;
             try {
-                subjects = objectMapper.readValue(file, objectMapper.getTypeFactory().constructCollectionType(List.class, Subject.class));
+                dataFile.write(out -> codec.write(out, snapshot));
             } catch (IOException e) {
-                System.err.println("Error loading subjects from JSON: " + e.getMessage());
-                subjects = new ArrayList<>();
+                System.err.println("Error saving subjects to JSON: " + e.getMessage());
             }
-        } else {
-            subjects = new ArrayList<>();
         }
     }
 
-    private void saveSubjects() {
-        try {
-            objectMapper.writeValue(new File(FILE_PATH), subjects);
-        } catch (IOException e) {
-            System.err.println("Error saving subjects to JSON: " + e.getMessage());
+    /**
+     * Writes pending changes to disk, if any.
+     */
+    public void flush() {
+        List<Subject> snapshot;
+        long sequence;
+        synchronized (this) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            snapshot = subjects.snapshot();
+            sequence = ++snapshotSequence;
         }
+        writeSubjects(snapshot, sequence);
+    }
+
+    /**
+     * Cancels the scheduled flush, waits for a write in progress, then writes the last changes.
+     * Later saves are written through.
+     */
+    @Override
+    public void close() {
+        if (flushExecutor != null) {
+            synchronized (this) {
+                if (pendingFlush != null) {
+                    pendingFlush.cancel(false);
+                    pendingFlush = null;
+                }
+            }
+            flushExecutor.shutdown();
+            try {
+                if (!flushExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    System.err.println("Timed out waiting for the subjects flush to finish");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
     }
 
     @Override
     public Subject save(Subject subject) {
-        Optional<Subject> existingSubject = findById(subject.getId());
-        if (existingSubject.isPresent()) {
-            // Update existing subject
-            subjects = subjects.stream()
-                    .map(s -> s.getId().equals(subject.getId()) ? subject : s)
-                    .collect(Collectors.toList());
-        } else {
-            // Add new subject
-            subjects.add(subject);
+        awaitLoaded();
+        synchronized (this) {
+            subjects.put(subject); // Adds a new subject or replaces the existing one in place
+            saveSubjects();
         }
-        saveSubjects();
         return subject;
     }
 
     @Override
     public Optional<Subject> findById(String id) {
-        return subjects.stream()
-                .filter(subject -> subject.getId().equals(id))
-                .findFirst();
+        Subject subject;
+        synchronized (this) {
+            subject = subjects.get(id);
+        }
+        if (subject == null && !loaded.isDone()) {
+            // Not read yet: it may be further down the file
+            awaitLoaded();
+            synchronized (this) {
+                subject = subjects.get(id);
+            }
+        }
+        return Optional.ofNullable(subject);
     }
 
     @Override
-    public List<Subject> findAll() {
-        return new ArrayList<>(subjects); // Return a copy to prevent external modification
+    public synchronized List<Subject> findAll() {
+        return subjects.snapshot(); // Immutable, rebuilt only after a structural change
     }
 
     @Override
     public void deleteById(String id) {
-        subjects.removeIf(subject -> subject.getId().equals(id));
-        saveSubjects();
+        awaitLoaded();
+        synchronized (this) {
+            if (subjects.remove(id) != null) {
+                saveSubjects();
+            }
+        }
+    }
+
+    @Override
+    public void transaction(Consumer<SubjectRepository> work) {
+        awaitLoaded();
+        synchronized (this) {
+            transactionDepth++;
+            try {
+                work.accept(this);
+            } finally {
+                if (--transactionDepth == 0 && changedInTransaction) {
+                    changedInTransaction = false;
+                    saveSubjects();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded.isDone();
+    }
+
+    @Override
+    public void whenLoaded(Runnable action) {
+        loaded.thenRun(action);
     }
 }
@@ -1,32 +1,84 @@
 package com.onyx.app.repository.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.onyx.app.model.TimerModel;
+import com.onyx.app.repository.SubjectRepository;
 import com.onyx.app.repository.TimerRepository;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class JsonTimerRepository implements TimerRepository {
 
     private final String DATA_DIR;
     private final String FILE_PATH;
-    private final ObjectMapper objectMapper;
-    private List<TimerModel> timers;
+    private final DataCodec codec;
+    private final AtomicFile dataFile;
+    private final SubjectRepository subjectRepository;
+    private final EntityIndex<TimerModel> timers = new EntityIndex<>(TimerModel::getId);
 
-    public JsonTimerRepository() {
+    // Write-behind: changes are marked dirty and flushed at most once per window
+    private final long flushWindowMillis;
+    private final ScheduledExecutorService flushExecutor;
+    private final Object writeLock = new Object();
+    private ScheduledFuture<?> pendingFlush;
+    private boolean dirty;
+    // Snapshots are numbered under this object; an older one never overwrites a newer one on disk
+    private long snapshotSequence;
+    private long writtenSequence; // Guarded by writeLock
+
+    private int transactionDepth;
+    private boolean changedInTransaction;
+
+    public JsonTimerRepository(SubjectRepository subjectRepository) {
+        this(subjectRepository, Duration.ZERO);
+    }
+
+    /**
+     * @param subjectRepository Resolves the subject id stored with each timer to its shared instance.
+     * @param flushWindow Duration over which changes are merged before being written to disk.
+     *                    {@code Duration.ZERO} writes the file on every change (write-through).
+     */
+    public JsonTimerRepository(SubjectRepository subjectRepository, Duration flushWindow) {
+        this(subjectRepository, flushWindow, AtomicFile.FsyncPolicy.INTERVAL);
+    }
+
+    /**
+     * @param subjectRepository Resolves the subject id stored with each timer to its shared instance.
+     * @param flushWindow Duration over which changes are merged before being written to disk.
+     * @param fsyncPolicy Durability of each write of timers.json.
+     */
+    public JsonTimerRepository(SubjectRepository subjectRepository, Duration flushWindow, AtomicFile.FsyncPolicy fsyncPolicy) {
+        this(subjectRepository, flushWindow, fsyncPolicy, DataCodec.JSON);
+    }
+
+    /**
+     * @param subjectRepository Resolves the subject id stored with each timer to its shared instance.
+     * @param flushWindow Duration over which changes are merged before being written to disk.
+     * @param fsyncPolicy Durability of each write of timers.json.
+     * @param codec       Format timers.json is written in; any format is accepted on load.
+     */
+    public JsonTimerRepository(SubjectRepository subjectRepository, Duration flushWindow,
+                               AtomicFile.FsyncPolicy fsyncPolicy, DataCodec codec) {
+        this.subjectRepository = subjectRepository;
         DATA_DIR = Paths.get(System.getProperty("user.home"), ".onyx", "data").toString();
         FILE_PATH = Paths.get(DATA_DIR, "timers.json").toString();
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.dataFile = new AtomicFile(Paths.get(FILE_PATH), fsyncPolicy);
+        this.codec = codec;
+        this.flushWindowMillis = flushWindow.toMillis();
+        this.flushExecutor = flushWindowMillis > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "onyx-timers-flush");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
         loadTimers();
     }
 
@@ -36,58 +88,131 @@ public class JsonTimerRepository implements TimerRepository {
             dataDir.mkdirs();
         }
 
-        File file = new File(FILE_PATH);
-        if (file.exists() && file.length() > 0) {
+        // Falls back to the previous generation if timers.json is missing or unreadable
+        StreamingLoader<TimerModel> loader = StreamingLoader.open(dataFile, TimerModel.class);
+        if (loader != null) {
+            loader.loadAllInto(timer -> {
+                // Older files embed a copy of the subject: swap it for the shared instance
+                subjectRepository.attach(timer);
+                timers.put(timer);
+            });
+            loader.close();
+            if (loader.isCorrupt()) {
+                // Keep the readable timers, set the damaged file aside
+                dataFile.quarantine();
+            }
+        }
+    }
+
+    private void saveTimers() {
+        if (transactionDepth > 0) {
+            changedInTransaction = true; // Saved once when the outermost transaction ends
+            return;
+        }
+        if (flushExecutor == null || flushExecutor.isShutdown()) {
+            writeTimers(timers.snapshot(), ++snapshotSequence);
+            return;
+        }
+        dirty = true;
+        if (pendingFlush == null) {
+            pendingFlush = flushExecutor.schedule(this::flush, flushWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeTimers(List<TimerModel> snapshot, long sequence) {
+        synchronized (writeLock) {
+            if (sequence <= writtenSequence) {
+                return; // A newer snapshot was written while this one waited for the lock
+            }
+            writtenSequence = sequence;
             try {
-                timers = objectMapper.readValue(file, objectMapper.getTypeFactory().constructCollectionType(List.class, TimerModel.class));
+                dataFile.write(out -> codec.write(out, snapshot));
             } catch (IOException e) {
-                System.err.println("Error loading timers from JSON: " + e.getMessage());
-                timers = new ArrayList<>();
+                System.err.println("Error saving timers to JSON: " + e.getMessage());
             }
-        } else {
-            timers = new ArrayList<>();
         }
     }
 
-    private void saveTimers() {
-        try {
-            objectMapper.writeValue(new File(FILE_PATH), timers);
-        } catch (IOException e) {
-            System.err.println("Error saving timers to JSON: " + e.getMessage());
+    /**
+     * Writes pending changes to disk, if any.
+     */
+    public void flush() {
+        List<TimerModel> snapshot;
+        long sequence;
+        synchronized (this) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            snapshot = timers.snapshot();
+            sequence = ++snapshotSequence;
         }
+        writeTimers(snapshot, sequence);
     }
 
+    /**
+     * Cancels the scheduled flush, waits for a write in progress, then writes the last changes.
+     * Later saves are written through.
+     */
     @Override
-    public TimerModel save(TimerModel timer) {
-        Optional<TimerModel> existingTimer = findById(timer.getId());
-        if (existingTimer.isPresent()) {
-            // Update existing timer
-            timers = timers.stream()
-                    .map(t -> t.getId().equals(timer.getId()) ? timer : t)
-                    .collect(Collectors.toList());
-        } else {
-            // Add new timer
-            timers.add(timer);
+    public void close() {
+        if (flushExecutor != null) {
+            synchronized (this) {
+                if (pendingFlush != null) {
+                    pendingFlush.cancel(false);
+                    pendingFlush = null;
+                }
+            }
+            flushExecutor.shutdown();
+            try {
+                if (!flushExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    System.err.println("Timed out waiting for the timers flush to finish");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        flush();
+    }
+
+    @Override
+    public synchronized TimerModel save(TimerModel timer) {
+        timers.put(timer); // Adds a new timer or replaces the existing one in place
         saveTimers();
         return timer;
     }
 
     @Override
-    public Optional<TimerModel> findById(String id) {
-        return timers.stream()
-                .filter(timer -> timer.getId().equals(id))
-                .findFirst();
+    public synchronized Optional<TimerModel> findById(String id) {
+        return Optional.ofNullable(timers.get(id));
     }
 
     @Override
-    public List<TimerModel> findAll() {
-        return new ArrayList<>(timers); // Return a copy to prevent external modification
+    public synchronized List<TimerModel> findAll() {
+        return timers.snapshot(); // Immutable, rebuilt only after a structural change
     }
 
     @Override
-    public void deleteById(String id) {
-        timers.removeIf(timer -> timer.getId().equals(id));
-        saveTimers();
+    public synchronized void deleteById(String id) {
+        if (timers.remove(id) != null) {
+            saveTimers();
+        }
+    }
+
+    @Override
+    public synchronized void transaction(Consumer<TimerRepository> work) {
+        transactionDepth++;
+        try {
+            work.accept(this);
+        } finally {
+            if (--transactionDepth == 0 && changedInTransaction) {
+                changedInTransaction = false;
+                saveTimers();
+            }
+        }
     }
 }
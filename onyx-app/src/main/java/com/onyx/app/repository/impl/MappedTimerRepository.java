@@ -0,0 +1,310 @@
+package com.onyx.app.repository.impl;
+
+import com.onyx.app.model.TimerModel;
+import com.onyx.app.repository.SubjectRepository;
+import com.onyx.app.repository.TimerRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * TimerRepository backed by a memory-mapped file of fixed-width records.
+ *
+ * Each timer owns one slot; deleted slots go to a free-list and are reused. Saving a timer
+ * that is already stored only rewrites its remaining time and running deadline in place (plus
+ * the type and subject reference when they changed), so a checkpoint involves no serialization
+ * and no file rewrite. The linked subject is stored by id and resolved through the SubjectRepository.
+ *
+ * File layout: a 16-byte header (magic, version, capacity) followed by {@code capacity} slots:
+ * <pre>
+ *  0  used         1 byte
+ *  1  h, m, s      3 bytes  remaining time
+ *  4  ih, im, is   3 bytes  initial time
+ *  7  timer type   1 byte   ordinal, high bit set for a stopwatch
+ *  8  id           1 + 40 bytes, length-prefixed UTF-8
+ * 49  subject id   1 + 40 bytes, length-prefixed UTF-8 (length 0 when none)
+ * 90  deadline     6 bytes  wall-clock deadline of a running timer, epoch millis (0 when stopped)
+ * </pre>
+ * A stopwatch has no initial time: bytes 1-6 hold its elapsed time instead, as 48-bit
+ * millis, and its deadline field holds the wall-clock instant it started from. The
+ * deadline uses bytes that version 1 files left zeroed, so those files read as stopped timers.
+ */
+public class MappedTimerRepository implements TimerRepository {
+
+    private static final int MAGIC = 0x4F4E5954; // "ONYT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 96;
+    private static final int MAX_ID_BYTES = 40;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final int OFFSET_USED = 0;
+    private static final int OFFSET_TIME = 1;
+    private static final int OFFSET_INIT = 4;
+    private static final int OFFSET_TYPE = 7;
+    private static final int OFFSET_ID = 8;
+    private static final int OFFSET_SUBJECT = OFFSET_ID + 1 + MAX_ID_BYTES;
+    private static final int OFFSET_DEADLINE = OFFSET_SUBJECT + 1 + MAX_ID_BYTES;
+    private static final int STOPWATCH_FLAG = 0x80;
+
+    private final SubjectRepository subjectRepository;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int highWater; // slots [0, highWater) have been used at least once
+
+    private final EntityIndex<TimerModel> timers = new EntityIndex<>(TimerModel::getId);
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private String[] subjectIdBySlot;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    public MappedTimerRepository(SubjectRepository subjectRepository) {
+        this(Paths.get(System.getProperty("user.home"), ".onyx", "data", "timers.bin"), subjectRepository);
+    }
+
+    public MappedTimerRepository(Path file, SubjectRepository subjectRepository) {
+        this.subjectRepository = subjectRepository;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() >= HEADER_SIZE) {
+                open();
+            } else {
+                create();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening timer store " + file, e);
+        }
+    }
+
+    private void create() throws IOException {
+        capacity = INITIAL_CAPACITY;
+        map();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        subjectIdBySlot = new String[capacity];
+    }
+
+    private void open() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an Onyx timer store");
+        }
+        capacity = buffer.getInt(8);
+        map();
+        subjectIdBySlot = new String[capacity];
+
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = slotOffset(slot);
+            if (buffer.get(base + OFFSET_USED) == 0) {
+                continue;
+            }
+            highWater = slot + 1;
+            String id = readString(base + OFFSET_ID);
+            String subjectId = readString(base + OFFSET_SUBJECT);
+            int type = buffer.get(base + OFFSET_TYPE) & 0xFF;
+            boolean stopwatch = (type & STOPWATCH_FLAG) != 0;
+            TimerModel timer = new TimerModel(id,
+                    buffer.get(base + OFFSET_TIME), buffer.get(base + OFFSET_TIME + 1), buffer.get(base + OFFSET_TIME + 2),
+                    buffer.get(base + OFFSET_INIT), buffer.get(base + OFFSET_INIT + 1), buffer.get(base + OFFSET_INIT + 2),
+                    TimerModel.TimerType.values()[type & ~STOPWATCH_FLAG],
+                    subjectId.isEmpty() ? null : subjectId, null,
+                    stopwatch, stopwatch ? getUInt48(base + OFFSET_TIME) * 1_000_000L : 0L);
+            timer.setDeadlineEpochMillis(getUInt48(base + OFFSET_DEADLINE));
+            subjectRepository.attach(timer);
+            timers.put(timer);
+            slotById.put(id, slot);
+            subjectIdBySlot[slot] = subjectId;
+        }
+        // Holes below the high-water mark are free slots
+        for (int slot = highWater - 1; slot >= 0; slot--) {
+            if (buffer.get(slotOffset(slot) + OFFSET_USED) == 0) {
+                pushFree(slot);
+            }
+        }
+    }
+
+    private void map() throws IOException {
+        // Mapping past the end of the file grows it
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+    }
+
+    @Override
+    public synchronized TimerModel save(TimerModel timer) {
+        Integer slot = slotById.get(timer.getId());
+        if (slot != null && timers.get(timer.getId()) == timer) {
+            // Same instance already stored: in-place checkpoint of the mutable fields
+            int base = slotOffset(slot);
+            putTime(base, timer);
+            buffer.put(base + OFFSET_TYPE, typeByte(timer));
+            String subjectId = subjectIdOf(timer);
+            if (!subjectId.equals(subjectIdBySlot[slot])) {
+                checkLength(subjectId);
+                writeString(base + OFFSET_SUBJECT, subjectId);
+                subjectIdBySlot[slot] = subjectId;
+            }
+        } else {
+            checkLength(timer.getId());
+            checkLength(subjectIdOf(timer));
+            if (slot == null) {
+                slot = allocateSlot();
+                slotById.put(timer.getId(), slot);
+            }
+            writeSlot(slot, timer);
+        }
+        timers.put(timer);
+        return timer;
+    }
+
+    // One read of the timer state, so a countdown running on another thread is never torn
+    private void putTime(int base, TimerModel timer) {
+        TimerModel.Snapshot time = timer.snapshot();
+        if (time.stopwatch()) {
+            putUInt48(base + OFFSET_TIME, time.elapsedNanos() / 1_000_000L);
+        } else {
+            buffer.put(base + OFFSET_TIME, time.hours());
+            buffer.put(base + OFFSET_TIME + 1, time.minutes());
+            buffer.put(base + OFFSET_TIME + 2, time.seconds());
+        }
+        putUInt48(base + OFFSET_DEADLINE, timer.getDeadlineEpochMillis());
+    }
+
+    private void putUInt48(int offset, long value) {
+        buffer.putShort(offset, (short) (value >>> 32));
+        buffer.putInt(offset + 2, (int) value);
+    }
+
+    private long getUInt48(int offset) {
+        return (buffer.getShort(offset) & 0xFFFFL) << 32 | buffer.getInt(offset + 2) & 0xFFFFFFFFL;
+    }
+
+    private void writeSlot(int slot, TimerModel timer) {
+        int base = slotOffset(slot);
+        String subjectId = subjectIdOf(timer);
+        if (!timer.isStopwatch()) {
+            buffer.put(base + OFFSET_INIT, timer.getInitHours());
+            buffer.put(base + OFFSET_INIT + 1, timer.getInitMinutes());
+            buffer.put(base + OFFSET_INIT + 2, timer.getInitSeconds());
+        }
+        putTime(base, timer);
+        buffer.put(base + OFFSET_TYPE, typeByte(timer));
+        writeString(base + OFFSET_ID, timer.getId());
+        writeString(base + OFFSET_SUBJECT, subjectId);
+        subjectIdBySlot[slot] = subjectId;
+        // Mark used last so a half-written slot is never read back
+        buffer.put(base + OFFSET_USED, (byte) 1);
+    }
+
+    @Override
+    public synchronized Optional<TimerModel> findById(String id) {
+        return Optional.ofNullable(timers.get(id));
+    }
+
+    @Override
+    public synchronized List<TimerModel> findAll() {
+        return timers.snapshot();
+    }
+
+    @Override
+    public synchronized void deleteById(String id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        timers.remove(id);
+        buffer.put(slotOffset(slot) + OFFSET_USED, (byte) 0);
+        subjectIdBySlot[slot] = null;
+        pushFree(slot);
+    }
+
+    @Override
+    public synchronized void transaction(Consumer<TimerRepository> work) {
+        // Writes go straight to the mapping: a transaction only has to exclude other threads
+        work.accept(this);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == capacity) {
+            grow();
+        }
+        return highWater++;
+    }
+
+    private void grow() {
+        capacity *= 2;
+        try {
+            map();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error growing timer store", e);
+        }
+        buffer.putInt(8, capacity);
+        subjectIdBySlot = Arrays.copyOf(subjectIdBySlot, capacity);
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private String readString(int offset) {
+        int length = buffer.get(offset);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeString(int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+
+    private static void checkLength(String id) {
+        if (id.getBytes(StandardCharsets.UTF_8).length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Id too long for the timer store: " + id);
+        }
+    }
+
+    private static String subjectIdOf(TimerModel timer) {
+        return timer.getLinkedSubject() != null ? timer.getLinkedSubject().getId() : "";
+    }
+
+    private static byte typeByte(TimerModel timer) {
+        TimerModel.TimerType type = timer.getTimerType() != null ? timer.getTimerType() : TimerModel.TimerType.FREE_SESSION;
+        return (byte) (type.ordinal() | (timer.isStopwatch() ? STOPWATCH_FLAG : 0));
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    @Override
+    public synchronized void close() {
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing timer store: " + e.getMessage());
+        }
+    }
+}
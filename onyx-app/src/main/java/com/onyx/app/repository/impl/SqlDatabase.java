@@ -0,0 +1,163 @@
+package com.onyx.app.repository.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Embedded H2 database in file mode, shared by the SQL repositories.
+ *
+ * A single connection is used; callers synchronize on this object around each statement or
+ * transaction, and the repositories use it as their only lock so that a transaction spanning
+ * both of them cannot deadlock. Only the changed rows are written, so the cost of a save no
+ * longer grows with the number of stored subjects and timers. Secondary indexes cover the
+ * lookups by subject, status and last study date.
+ */
+public class SqlDatabase implements AutoCloseable {
+
+    private static final String[] SCHEMA = {
+            """
+            CREATE TABLE IF NOT EXISTS subjects (
+                id VARCHAR(64) PRIMARY KEY,
+                name VARCHAR(255) NOT NULL,
+                status VARCHAR(16) NOT NULL,
+                target_nanos BIGINT NOT NULL,
+                time_spent_nanos BIGINT NOT NULL,
+                default_timer_nanos BIGINT NOT NULL,
+                last_study_date TIMESTAMP
+            )""",
+            "CREATE INDEX IF NOT EXISTS idx_subjects_status ON subjects(status)",
+            "CREATE INDEX IF NOT EXISTS idx_subjects_last_study_date ON subjects(last_study_date)",
+            """
+            CREATE TABLE IF NOT EXISTS timers (
+                id VARCHAR(64) PRIMARY KEY,
+                hours TINYINT NOT NULL,
+                minutes TINYINT NOT NULL,
+                seconds TINYINT NOT NULL,
+                init_hours TINYINT NOT NULL,
+                init_minutes TINYINT NOT NULL,
+                init_seconds TINYINT NOT NULL,
+                timer_type VARCHAR(16) NOT NULL,
+                subject_id VARCHAR(64),
+                deadline_epoch_millis BIGINT DEFAULT 0 NOT NULL,
+                stopwatch BOOLEAN DEFAULT FALSE NOT NULL,
+                elapsed_nanos BIGINT DEFAULT 0 NOT NULL
+            )""",
+            // Databases created before running deadlines and stopwatches were persisted
+            "ALTER TABLE timers ADD COLUMN IF NOT EXISTS deadline_epoch_millis BIGINT DEFAULT 0 NOT NULL",
+            "ALTER TABLE timers ADD COLUMN IF NOT EXISTS stopwatch BOOLEAN DEFAULT FALSE NOT NULL",
+            "ALTER TABLE timers ADD COLUMN IF NOT EXISTS elapsed_nanos BIGINT DEFAULT 0 NOT NULL",
+            "CREATE INDEX IF NOT EXISTS idx_timers_subject_id ON timers(subject_id)"
+    };
+
+    private final Connection connection;
+    private boolean transactionOpen;
+    // Undoes the in-memory changes of the open transaction, in reverse order, if it rolls back
+    private final List<Runnable> rollbackActions = new ArrayList<>();
+    // First statement failure reported by a repository during the open transaction
+    private SQLException failure;
+
+    public SqlDatabase() {
+        this(Paths.get(System.getProperty("user.home"), ".onyx", "data", "onyx"));
+    }
+
+    /**
+     * @param file Database path without the {@code .mv.db} extension added by H2.
+     */
+    public SqlDatabase(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            this.connection = DriverManager.getConnection("jdbc:h2:file:" + file.toAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Error opening database " + file, e);
+        }
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Work executed inside a single transaction.
+     */
+    @FunctionalInterface
+    public interface Work {
+        void run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Runs {@code work} in one transaction, rolled back if it throws. Called from within a
+     * transaction, the work simply joins it.
+     */
+    public synchronized void inTransaction(Work work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            work.run(connection);
+            return;
+        }
+        connection.setAutoCommit(false);
+        transactionOpen = true;
+        try {
+            work.run(connection);
+            if (failure != null) {
+                throw failure;
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            for (int i = rollbackActions.size() - 1; i >= 0; i--) {
+                rollbackActions.get(i).run();
+            }
+            throw e;
+        } finally {
+            transactionOpen = false;
+            rollbackActions.clear();
+            failure = null;
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Registers {@code undo} to restore the repositories' in-memory state if the current
+     * transaction rolls back. Outside a transaction the change is already committed and
+     * nothing is registered.
+     */
+    public synchronized void onRollback(Runnable undo) {
+        if (transactionOpen) {
+            rollbackActions.add(undo);
+        }
+    }
+
+    /**
+     * Reports a statement failure the calling repository has already logged. Within a
+     * transaction the failure is rethrown once the work returns, so the whole transaction rolls
+     * back instead of committing the statements that succeeded.
+     */
+    public synchronized void failed(SQLException e) {
+        if (transactionOpen && failure == null) {
+            failure = e;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing database: " + e.getMessage());
+        }
+    }
+}
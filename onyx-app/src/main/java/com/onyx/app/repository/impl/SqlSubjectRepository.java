@@ -0,0 +1,253 @@
+package com.onyx.app.repository.impl;
+
+import com.onyx.app.model.Subject;
+import com.onyx.app.repository.SubjectRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * SubjectRepository backed by the embedded SQL database.
+ *
+ * Rows are loaded once into an identity map so that each subject exists as a single instance
+ * shared with the timers; a save then writes only the affected row. All state is guarded by
+ * the database lock.
+ */
+public class SqlSubjectRepository implements SubjectRepository {
+
+    static final String UPSERT = "MERGE INTO subjects (id, name, status, target_nanos, time_spent_nanos, "
+            + "default_timer_nanos, last_study_date) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM subjects WHERE id = ?";
+    private static final String SELECT = "SELECT id, name, status, target_nanos, time_spent_nanos, "
+            + "default_timer_nanos, last_study_date FROM subjects";
+
+    private final SqlDatabase database;
+    private final EntityIndex<Subject> subjects = new EntityIndex<>(Subject::getId);
+
+    public SqlSubjectRepository(SqlDatabase database) {
+        this.database = database;
+        loadSubjects();
+    }
+
+    private void loadSubjects() {
+        synchronized (database) {
+            try (Statement statement = database.connection().createStatement();
+                 ResultSet rows = statement.executeQuery(SELECT + " ORDER BY _ROWID_")) {
+                while (rows.next()) {
+                    subjects.put(read(rows));
+                }
+            } catch (SQLException e) {
+                System.err.println("Error loading subjects from database: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Subject save(Subject subject) {
+        synchronized (database) {
+            try (PreparedStatement statement = database.connection().prepareStatement(UPSERT)) {
+                bind(statement, subject);
+                statement.executeUpdate();
+                index(subject);
+            } catch (SQLException e) {
+                System.err.println("Error saving subject to database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+        return subject;
+    }
+
+    @Override
+    public Optional<Subject> findById(String id) {
+        synchronized (database) {
+            return Optional.ofNullable(subjects.get(id));
+        }
+    }
+
+    @Override
+    public List<Subject> findAll() {
+        synchronized (database) {
+            return subjects.snapshot();
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        synchronized (database) {
+            if (subjects.get(id) == null) {
+                return;
+            }
+            try (PreparedStatement statement = database.connection().prepareStatement(DELETE)) {
+                statement.setString(1, id);
+                statement.executeUpdate();
+                unindex(id);
+            } catch (SQLException e) {
+                System.err.println("Error deleting subject from database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+    }
+
+    @Override
+    public List<Subject> saveAll(Collection<Subject> batch) {
+        synchronized (database) {
+            try {
+                database.inTransaction(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                        for (Subject subject : batch) {
+                            bind(statement, subject);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                    for (Subject subject : batch) {
+                        index(subject);
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("Error saving subjects to database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+        return List.copyOf(batch);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        synchronized (database) {
+            try {
+                database.inTransaction(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+                        for (String id : ids) {
+                            statement.setString(1, id);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                    for (String id : ids) {
+                        unindex(id);
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("Error deleting subjects from database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+    }
+
+    @Override
+    public void transaction(Consumer<SubjectRepository> work) {
+        try {
+            database.inTransaction(connection -> work.accept(this));
+        } catch (SQLException e) {
+            System.err.println("Error committing subjects transaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Subjects in the given status, resolved through the status index.
+     */
+    public List<Subject> findByStatus(Subject.Status status) {
+        return queryIds("SELECT id FROM subjects WHERE status = ?", statement -> statement.setString(1, status.name()));
+    }
+
+    /**
+     * Subjects studied at or after {@code since}, most recent first, resolved through the
+     * last study date index.
+     */
+    public List<Subject> findStudiedSince(LocalDateTime since) {
+        return queryIds("SELECT id FROM subjects WHERE last_study_date >= ? ORDER BY last_study_date DESC",
+                statement -> statement.setTimestamp(1, Timestamp.valueOf(since)));
+    }
+
+    /**
+     * Adds a subject whose row was just written; the previous entry comes back if the enclosing
+     * transaction rolls back.
+     */
+    private void index(Subject subject) {
+        Subject previous = subjects.put(subject);
+        database.onRollback(() -> {
+            if (previous != null) {
+                subjects.put(previous);
+            } else {
+                subjects.remove(subject.getId());
+            }
+        });
+    }
+
+    /**
+     * Removes a subject whose row was just deleted; it comes back if the enclosing transaction
+     * rolls back.
+     */
+    private void unindex(String id) {
+        Subject removed = subjects.remove(id);
+        if (removed != null) {
+            database.onRollback(() -> subjects.put(removed));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private List<Subject> queryIds(String sql, Binder binder) {
+        List<Subject> result = new ArrayList<>();
+        synchronized (database) {
+            try (PreparedStatement statement = database.connection().prepareStatement(sql)) {
+                binder.bind(statement);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        Subject subject = subjects.get(rows.getString(1));
+                        if (subject != null) {
+                            result.add(subject);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error querying subjects: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    static void bind(PreparedStatement statement, Subject subject) throws SQLException {
+        statement.setString(1, subject.getId());
+        statement.setString(2, subject.getName() != null ? subject.getName() : "");
+        Subject.Status status = subject.getStatus() != null ? subject.getStatus() : Subject.Status.NOT_STARTED;
+        statement.setString(3, status.name());
+        statement.setLong(4, nanosOf(subject.getTargetTime()));
+        statement.setLong(5, nanosOf(subject.getTimeSpent()));
+        statement.setLong(6, nanosOf(subject.getDefaultTimerDuration()));
+        statement.setTimestamp(7, subject.getLastStudyDate() != null ? Timestamp.valueOf(subject.getLastStudyDate()) : null);
+    }
+
+    private static Subject read(ResultSet row) throws SQLException {
+        Subject subject = new Subject(row.getString("id"), row.getString("name"),
+                Duration.ofNanos(row.getLong("target_nanos")), Duration.ofNanos(row.getLong("default_timer_nanos")));
+        subject.setTimeSpent(Duration.ofNanos(row.getLong("time_spent_nanos")));
+        subject.setStatus(Subject.Status.valueOf(row.getString("status")));
+        Timestamp lastStudyDate = row.getTimestamp("last_study_date");
+        subject.setLastStudyDate(lastStudyDate != null ? lastStudyDate.toLocalDateTime() : null);
+        return subject;
+    }
+
+    private static long nanosOf(Duration duration) {
+        return duration != null ? duration.toNanos() : 0;
+    }
+
+    @Override
+    public void close() {
+        database.close();
+    }
+}
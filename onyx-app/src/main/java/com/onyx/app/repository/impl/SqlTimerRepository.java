@@ -0,0 +1,232 @@
+package com.onyx.app.repository.impl;
+
+import com.onyx.app.model.TimerModel;
+import com.onyx.app.repository.SubjectRepository;
+import com.onyx.app.repository.TimerRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * TimerRepository backed by the embedded SQL database.
+ *
+ * Timers reference their subject by id and are resolved through the SubjectRepository, so a
+ * save writes a single row whatever the number of timers and subjects. All state is guarded
+ * by the database lock.
+ */
+public class SqlTimerRepository implements TimerRepository {
+
+    static final String UPSERT = "MERGE INTO timers (id, hours, minutes, seconds, init_hours, init_minutes, "
+            + "init_seconds, timer_type, subject_id, deadline_epoch_millis, stopwatch, elapsed_nanos) KEY (id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM timers WHERE id = ?";
+
+    private final SqlDatabase database;
+    private final EntityIndex<TimerModel> timers = new EntityIndex<>(TimerModel::getId);
+
+    public SqlTimerRepository(SqlDatabase database, SubjectRepository subjectRepository) {
+        this.database = database;
+        loadTimers(subjectRepository);
+    }
+
+    private void loadTimers(SubjectRepository subjectRepository) {
+        synchronized (database) {
+            try (Statement statement = database.connection().createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT * FROM timers ORDER BY _ROWID_")) {
+                while (rows.next()) {
+                    TimerModel timer = new TimerModel(rows.getString("id"),
+                            rows.getByte("hours"), rows.getByte("minutes"), rows.getByte("seconds"),
+                            rows.getByte("init_hours"), rows.getByte("init_minutes"), rows.getByte("init_seconds"),
+                            TimerModel.TimerType.valueOf(rows.getString("timer_type")),
+                            rows.getString("subject_id"), null,
+                            rows.getBoolean("stopwatch"), rows.getLong("elapsed_nanos"));
+                    timer.setDeadlineEpochMillis(rows.getLong("deadline_epoch_millis"));
+                    subjectRepository.attach(timer);
+                    timers.put(timer);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error loading timers from database: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public TimerModel save(TimerModel timer) {
+        synchronized (database) {
+            try (PreparedStatement statement = database.connection().prepareStatement(UPSERT)) {
+                bind(statement, timer);
+                statement.executeUpdate();
+                index(timer);
+            } catch (SQLException e) {
+                System.err.println("Error saving timer to database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+        return timer;
+    }
+
+    @Override
+    public Optional<TimerModel> findById(String id) {
+        synchronized (database) {
+            return Optional.ofNullable(timers.get(id));
+        }
+    }
+
+    @Override
+    public List<TimerModel> findAll() {
+        synchronized (database) {
+            return timers.snapshot();
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        synchronized (database) {
+            if (timers.get(id) == null) {
+                return;
+            }
+            try (PreparedStatement statement = database.connection().prepareStatement(DELETE)) {
+                statement.setString(1, id);
+                statement.executeUpdate();
+                unindex(id);
+            } catch (SQLException e) {
+                System.err.println("Error deleting timer from database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+    }
+
+    @Override
+    public List<TimerModel> saveAll(Collection<TimerModel> batch) {
+        synchronized (database) {
+            try {
+                database.inTransaction(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(UPSERT)) {
+                        for (TimerModel timer : batch) {
+                            bind(statement, timer);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                    for (TimerModel timer : batch) {
+                        index(timer);
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("Error saving timers to database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+        return List.copyOf(batch);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> ids) {
+        synchronized (database) {
+            try {
+                database.inTransaction(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+                        for (String id : ids) {
+                            statement.setString(1, id);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                    for (String id : ids) {
+                        unindex(id);
+                    }
+                });
+            } catch (SQLException e) {
+                System.err.println("Error deleting timers from database: " + e.getMessage());
+                database.failed(e);
+            }
+        }
+    }
+
+    @Override
+    public void transaction(Consumer<TimerRepository> work) {
+        try {
+            database.inTransaction(connection -> work.accept(this));
+        } catch (SQLException e) {
+            System.err.println("Error committing timers transaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Timers linked to the given subject, resolved through the subject id index.
+     */
+    public List<TimerModel> findBySubjectId(String subjectId) {
+        List<TimerModel> result = new ArrayList<>();
+        synchronized (database) {
+            try (PreparedStatement statement = database.connection().prepareStatement("SELECT id FROM timers WHERE subject_id = ?")) {
+                statement.setString(1, subjectId);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        TimerModel timer = timers.get(rows.getString(1));
+                        if (timer != null) {
+                            result.add(timer);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error querying timers: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a timer whose row was just written; the previous entry comes back if the enclosing
+     * transaction rolls back.
+     */
+    private void index(TimerModel timer) {
+        TimerModel previous = timers.put(timer);
+        database.onRollback(() -> {
+            if (previous != null) {
+                timers.put(previous);
+            } else {
+                timers.remove(timer.getId());
+            }
+        });
+    }
+
+    /**
+     * Removes a timer whose row was just deleted; it comes back if the enclosing transaction
+     * rolls back.
+     */
+    private void unindex(String id) {
+        TimerModel removed = timers.remove(id);
+        if (removed != null) {
+            database.onRollback(() -> timers.put(removed));
+        }
+    }
+
+    static void bind(PreparedStatement statement, TimerModel timer) throws SQLException {
+        statement.setString(1, timer.getId());
+        TimerModel.Snapshot time = timer.snapshot();
+        statement.setByte(2, time.hours());
+        statement.setByte(3, time.minutes());
+        statement.setByte(4, time.seconds());
+        statement.setByte(5, timer.getInitHours());
+        statement.setByte(6, timer.getInitMinutes());
+        statement.setByte(7, timer.getInitSeconds());
+        TimerModel.TimerType type = timer.getTimerType() != null ? timer.getTimerType() : TimerModel.TimerType.FREE_SESSION;
+        statement.setString(8, type.name());
+        statement.setString(9, timer.getSubjectId());
+        statement.setLong(10, timer.getDeadlineEpochMillis());
+        statement.setBoolean(11, time.stopwatch());
+        statement.setLong(12, time.elapsedNanos());
+    }
+
+    @Override
+    public void close() {
+        database.close();
+    }
+}
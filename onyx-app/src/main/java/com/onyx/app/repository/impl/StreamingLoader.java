@@ -0,0 +1,98 @@
+package com.onyx.app.repository.impl;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Incremental reader of a data file holding an array of entities.
+ *
+ * Entities are decoded one at a time from the token stream, so the caller can publish a first
+ * page before the rest of the file is parsed and the whole document is never held in memory.
+ * A corrupt record (typically a truncated tail) stops the load but keeps every entity read
+ * before it; {@link #isCorrupt()} then tells the caller to set the damaged file aside.
+ */
+public class StreamingLoader<T> implements Closeable {
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private final Class<T> type;
+    private boolean finished;
+    private boolean corrupt;
+    private int count;
+
+    private StreamingLoader(InputStream in, Class<T> type) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        this.mapper = DataCodec.detect(buffered).mapper();
+        this.parser = mapper.getFactory().createParser(buffered);
+        this.type = type;
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new JsonParseException(parser, "Expected an array of " + type.getSimpleName());
+        }
+    }
+
+    /**
+     * Opens the current generation of {@code file}, or the previous one if the current is
+     * missing or unreadable from its first bytes.
+     * @return the loader, or null if there is nothing to load
+     */
+    public static <T> StreamingLoader<T> open(AtomicFile file, Class<T> type) {
+        return file.open(in -> new StreamingLoader<>(in, type));
+    }
+
+    /**
+     * Decodes up to {@code max} entities and hands them to {@code sink}.
+     * @return the number of entities delivered
+     */
+    public int loadInto(Consumer<T> sink, int max) {
+        int delivered = 0;
+        while (!finished && delivered < max) {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    finished = true;
+                    break;
+                }
+                T entity = mapper.readValue(parser, type);
+                sink.accept(entity);
+                delivered++;
+                count++;
+            } catch (IOException e) {
+                System.err.println("Corrupt " + type.getSimpleName() + " record after " + count
+                        + " entries, keeping those: " + e.getMessage());
+                corrupt = true;
+                finished = true;
+            }
+        }
+        return delivered;
+    }
+
+    public int loadAllInto(Consumer<T> sink) {
+        return loadInto(sink, Integer.MAX_VALUE);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isCorrupt() {
+        return corrupt;
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            System.err.println("Error closing data file: " + e.getMessage());
+        }
+    }
+}
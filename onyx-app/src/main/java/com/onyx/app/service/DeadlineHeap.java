@@ -0,0 +1,130 @@
+package com.onyx.app.service;
+
+import java.util.Arrays;
+
+/**
+ * Tas binaire minimum d'échéances, exprimées en ticks entiers.
+ *
+ * Donne en O(1) l'échéance la plus proche, ce que la {@link TimingWheel} ne sait pas faire sans
+ * parcourir ses cases : le TimerTickScheduler s'en sert pour dormir jusqu'à la prochaine fin de
+ * timer quand aucune vue n'affiche le décompte. Chaque entrée connaît sa position dans le tas,
+ * d'où un retrait en O(log n) sans recherche.
+ *
+ * Non thread-safe : utilisé sous le verrou du TimerTickScheduler.
+ */
+public final class DeadlineHeap<T> {
+
+    /**
+     * Échéance présente dans le tas ; retirable via {@link DeadlineHeap#remove(Entry)}.
+     */
+    public static final class Entry<T> {
+        private final T item;
+        private final long deadline;
+        private int index = -1;
+
+        private Entry(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isQueued() {
+            return index >= 0;
+        }
+    }
+
+    private Entry<T>[] heap;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public DeadlineHeap() {
+        this.heap = (Entry<T>[]) new Entry<?>[16];
+    }
+
+    public Entry<T> add(T item, long deadline) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        Entry<T> entry = new Entry<>(item, deadline);
+        entry.index = size;
+        heap[size++] = entry;
+        siftUp(entry.index);
+        return entry;
+    }
+
+    /**
+     * Retire une entrée encore présente (sans effet sinon).
+     */
+    public void remove(Entry<T> entry) {
+        if (entry == null || entry.index < 0) {
+            return;
+        }
+        int index = entry.index;
+        entry.index = -1;
+        Entry<T> last = heap[--size];
+        heap[size] = null;
+        if (last != entry) {
+            heap[index] = last;
+            last.index = index;
+            siftDown(index);
+            siftUp(last.index);
+        }
+    }
+
+    /**
+     * Échéance la plus proche, ou null si le tas est vide.
+     */
+    public Entry<T> peek() {
+        return size > 0 ? heap[0] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void siftUp(int index) {
+        Entry<T> entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].deadline <= entry.deadline) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(entry, index);
+    }
+
+    private void siftDown(int index) {
+        Entry<T> entry = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].deadline < heap[child].deadline) {
+                child++;
+            }
+            if (entry.deadline <= heap[child].deadline) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(entry, index);
+    }
+
+    private void place(Entry<T> entry, int index) {
+        heap[index] = entry;
+        entry.index = index;
+    }
+}
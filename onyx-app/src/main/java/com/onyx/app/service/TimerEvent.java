@@ -0,0 +1,49 @@
+package com.onyx.app.service;
+
+/**
+ * Événements publiés par un {@link TimerService} sur son {@link TimerEventBus}.
+ *
+ * Les changements d'état ({@link StateChange}) sont toujours livrés un par un. Les
+ * {@link Tick} ne servent qu'à l'affichage : ils sont fusionnés pour un abonné en retard et
+ * s'abonner aux seuls changements d'état ne réveille pas l'ordonnanceur chaque seconde.
+ */
+public sealed interface TimerEvent {
+
+    TimerService timer();
+
+    /**
+     * Rafraîchissement du temps affiché, chaque seconde pendant le décompte.
+     */
+    record Tick(TimerService timer) implements TimerEvent {}
+
+    /**
+     * Tour enregistré ; les tours ne sont pas persistés.
+     */
+    record Lap(TimerService timer) implements TimerEvent {}
+
+    /**
+     * Transition d'état du timer : à persister et à refléter dans les boutons.
+     */
+    sealed interface StateChange extends TimerEvent {}
+
+    record Started(TimerService timer) implements StateChange {}
+
+    record Paused(TimerService timer) implements StateChange {}
+
+    /** Arrêt complet : le timer ne peut plus être réinitialisé tant qu'il n'a pas redémarré. */
+    record Stopped(TimerService timer) implements StateChange {}
+
+    record Reset(TimerService timer) implements StateChange {}
+
+    /** Décompte arrivé à zéro ; le temps est déjà crédité au cours lié. */
+    record Finished(TimerService timer) implements StateChange {}
+
+    /** Temps étudié crédité au cours lié pendant le décompte, à intervalle borné. */
+    record Checkpoint(TimerService timer) implements StateChange {}
+
+    /** Nouvelle durée, nouveau type ou nouveau cours lié. */
+    record Reconfigured(TimerService timer) implements StateChange {}
+
+    /** Timer supprimé : dernier événement publié, les abonnements sont ensuite annulés. */
+    record Deleted(TimerService timer) implements StateChange {}
+}
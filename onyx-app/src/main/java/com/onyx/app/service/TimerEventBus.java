@@ -0,0 +1,147 @@
+package com.onyx.app.service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Bus d'événements d'un timer, à abonnés multiples.
+ *
+ * Chaque abonné choisit le type d'événements qu'il reçoit et l'{@link Executor} qui les lui
+ * livre : directement sur le thread de publication, sur le thread JavaFX
+ * ({@code Platform::runLater}), sur un thread d'écriture... Un abonné reçoit ses événements
+ * dans l'ordre de publication, sans jamais être appelé en parallèle avec lui-même. Tant qu'un
+ * {@link TimerEvent.Tick} attend d'être livré à un abonné, les suivants sont fusionnés avec
+ * lui : un abonné lent ne voit que le dernier état, sans file qui grossit.
+ */
+public final class TimerEventBus {
+
+    /**
+     * Abonnement en cours ; {@link #cancel()} arrête la livraison, y compris des événements
+     * déjà en attente.
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final class Subscriber<E extends TimerEvent> implements Subscription {
+        private final Class<E> type;
+        private final Executor executor;
+        private final Consumer<? super E> listener;
+        private final ConcurrentLinkedQueue<TimerEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean tickQueued = new AtomicBoolean();
+        private volatile boolean active = true;
+
+        private Subscriber(Class<E> type, Executor executor, Consumer<? super E> listener) {
+            this.type = type;
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        private void offer(TimerEvent event) {
+            if (event instanceof TimerEvent.Tick && !tickQueued.compareAndSet(false, true)) {
+                return; // Un tick attend déjà : il affichera l'état le plus récent
+            }
+            queue.add(event);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Un seul drain à la fois par abonné : l'ordre est garanti même avec un Executor parallèle
+        private void drain() {
+            do {
+                TimerEvent event;
+                while ((event = queue.poll()) != null) {
+                    if (event instanceof TimerEvent.Tick) {
+                        tickQueued.set(false);
+                    }
+                    if (active) {
+                        deliver(event);
+                    }
+                }
+                scheduled.set(false);
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        private void deliver(TimerEvent event) {
+            try {
+                listener.accept(type.cast(event));
+            } catch (RuntimeException e) {
+                System.err.println("Erreur dans un abonné aux événements du timer : " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void cancel() {
+            active = false;
+            queue.clear();
+            if (subscribers.remove(this)) {
+                onSubscribersChanged.run();
+            }
+        }
+    }
+
+    private final CopyOnWriteArrayList<Subscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+    private final Runnable onSubscribersChanged;
+
+    public TimerEventBus() {
+        this(() -> { });
+    }
+
+    /**
+     * @param onSubscribersChanged appelé après chaque abonnement ou désabonnement
+     */
+    public TimerEventBus(Runnable onSubscribersChanged) {
+        this.onSubscribersChanged = onSubscribersChanged;
+    }
+
+    /**
+     * Abonne {@code listener} aux événements de type {@code type}, livrés sur le thread de publication.
+     */
+    public <E extends TimerEvent> Subscription subscribe(Class<E> type, Consumer<? super E> listener) {
+        return subscribe(type, Runnable::run, listener);
+    }
+
+    /**
+     * Abonne {@code listener} aux événements de type {@code type}, livrés par {@code executor}.
+     */
+    public <E extends TimerEvent> Subscription subscribe(Class<E> type, Executor executor, Consumer<? super E> listener) {
+        Subscriber<E> subscriber = new Subscriber<>(type, executor, listener);
+        subscribers.add(subscriber);
+        onSubscribersChanged.run();
+        return subscriber;
+    }
+
+    public void publish(TimerEvent event) {
+        for (Subscriber<?> subscriber : subscribers) {
+            if (subscriber.type.isInstance(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Vrai si au moins un abonné recevrait un événement de type {@code type}.
+     */
+    public boolean hasSubscribers(Class<? extends TimerEvent> type) {
+        for (Subscriber<?> subscriber : subscribers) {
+            if (subscriber.type.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Annule tous les abonnements.
+     */
+    public void clear() {
+        for (Subscriber<?> subscriber : subscribers) {
+            subscriber.cancel();
+        }
+    }
+}
@@ -7,46 +7,49 @@ import com.onyx.app.model.Subject;
 import com.onyx.app.model.TimerModel;
 import com.onyx.app.repository.SubjectRepository;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-
 /**
  * Service pour gérer la logique métier des timers
  * Sépare la logique de l'interface utilisateur (principe de séparation des responsabilités)
  */
 public class TimerService {
     
-    private TimerModel timerModel;
-    private boolean isRunning;
-    private boolean canReset;
+    // État de décompte dans le TimerModel (mot atomique) : lisible depuis n'importe quel thread
+    private volatile TimerModel timerModel;
+    private volatile boolean canReset;
     private SubjectRepository subjectRepository;
-    
-    // Timeline pour le décompte automatique
-    private Timeline timeline;
-    
-    // Callbacks pour notifier l'interface utilisateur
-    private Runnable onTimerFinished;
-    private Runnable onStateChanged;
+    private final TimerTickScheduler scheduler;
+    // Vues et persistance s'y abonnent indépendamment ; un abonnement aux ticks rend le timer affiché
+    private final TimerEventBus events;
     
     public TimerService(SubjectRepository subjectRepository) {
+        this(subjectRepository, TimerTickScheduler.getInstance());
+    }
+
+    /**
+     * Service piloté par un ordonnanceur donné (moteur sans interface, tests, simulations).
+     */
+    public TimerService(SubjectRepository subjectRepository, TimerTickScheduler scheduler) {
         this.subjectRepository = subjectRepository;
+        this.scheduler = scheduler;
+        this.events = new TimerEventBus(() -> scheduler.updateDisplay(this));
         setDefaultTimer();
-        initializeTimeline();
     }
-    
+
+    /**
+     * Service d'emblée lié à un modèle existant, sans passer par le timer par défaut.
+     */
+    public TimerService(TimerModel model, SubjectRepository subjectRepository, TimerTickScheduler scheduler) {
+        this.subjectRepository = subjectRepository;
+        this.scheduler = scheduler;
+        this.events = new TimerEventBus(() -> scheduler.updateDisplay(this));
+        setTimerModel(model);
+    }
+
     public TimerService(byte hours, byte minutes, byte seconds, TimerModel.TimerType timerType, Subject linkedSubject, SubjectRepository subjectRepository) {
         this(subjectRepository); // Call primary constructor to set subjectRepository
         setTimer(hours, minutes, seconds, timerType, linkedSubject, subjectRepository);
     }
     
-    /**
-     * Initialise la Timeline pour le décompte automatique
-     */
-    private void initializeTimeline() {
-        timeline = new Timeline(new KeyFrame(javafx.util.Duration.seconds(1), e -> decrement()));
-        timeline.setCycleCount(Timeline.INDEFINITE);
-    }
-    
     /**
      * Définit un timer par défaut (5 secondes)
      */
@@ -60,27 +63,41 @@ public class TimerService {
         public void setTimer(byte hours, byte minutes, byte seconds, TimerModel.TimerType timerType, Subject linkedSubject, SubjectRepository subjectRepository) {
         this.subjectRepository = subjectRepository;
         String id = (this.timerModel != null) ? this.timerModel.getId() : null;
-        this.timerModel = new TimerModel(id, hours, minutes, seconds, timerType, linkedSubject);
-        this.isRunning = false;
+        scheduler.unregister(this); // L'ancien modèle ne sera plus décompté
+        TimerModel previous = this.timerModel;
+        TimerModel model = new TimerModel(id, hours, minutes, seconds, timerType, linkedSubject);
+        model.setClock(scheduler.getClock());
+        this.timerModel = model;
         this.canReset = false;
-        notifyStateChanged();
+        events.publish(new TimerEvent.Reconfigured(this));
+        release(previous, model); // Le nouveau modèle a pris sa place, repository compris
     }
     
     /**
-     * Définit un timer à partir d'un modèle existant
+     * Définit un timer à partir d'un modèle existant ; le modèle remplacé est libéré
      */
     public void setTimerModel(TimerModel model) {
+        scheduler.unregister(this);
+        TimerModel previous = this.timerModel;
+        model.setClock(scheduler.getClock()); // Même horloge que les échéances de l'ordonnanceur
+        model.pause();
         this.timerModel = model;
-        this.isRunning = false;
         this.canReset = false;
-        notifyStateChanged();
+        events.publish(new TimerEvent.Reconfigured(this));
+        release(previous, model);
+    }
+
+    private static void release(TimerModel previous, TimerModel current) {
+        if (previous != null && previous != current) {
+            previous.release();
+        }
     }
     
     /**
      * Démarre ou met en pause le timer
      */
     public void toggleTimer() {
-        if (!isRunning && !timerModel.isFinished()) {
+        if (!isRunning() && !timerModel.isFinished()) {
             startTimer();
         } else {
             pauseTimer();
@@ -92,87 +109,176 @@ public class TimerService {
      */
     public void startTimer() {
         if (!timerModel.isFinished()) {
-            isRunning = true;
             canReset = true;
-            timeline.play();
-            notifyStateChanged();
+            timerModel.start();
+            scheduler.register(this); // Décompte piloté par le tick partagé
+            events.publish(new TimerEvent.Started(this));
         }
     }
     
+    /**
+     * Reprend le décompte en cours à la dernière fermeture de l'application : le timer repart
+     * jusqu'à son échéance persistée, ou se termine (temps crédité au cours lié) si elle est
+     * passée entre-temps. Sans effet pour un timer qui était arrêté. Un timer repris n'est
+     * confié à l'ordonnanceur que par {@link #scheduleResumed()}, une fois tous les timers repris.
+     * @return true si le décompte a repris
+     */
+    boolean resumePersisted() {
+        long deadline = timerModel.getDeadlineEpochMillis();
+        if (deadline == 0) {
+            return false;
+        }
+        if (timerModel.resumeUntil(deadline)) {
+            canReset = true;
+            events.publish(new TimerEvent.Started(this));
+            return true;
+        }
+        handleTimerFinished();
+        return false;
+    }
+
+    /**
+     * Confie à l'ordonnanceur un timer repris par {@link #resumePersisted()}.
+     */
+    void scheduleResumed() {
+        if (isRunning()) {
+            scheduler.register(this);
+        }
+    }
+
     /**
      * Met en pause le timer
      */
     public void pauseTimer() {
-        isRunning = false;
-        timeline.pause();
-        notifyStateChanged();
+        halt();
+        creditStudyTime();
+        events.publish(new TimerEvent.Paused(this));
     }
     
     /**
      * Arrête complètement le timer
      */
     public void stopTimer() {
-        isRunning = false;
+        halt();
+        creditStudyTime();
         canReset = false;
-        timeline.stop();
-        notifyStateChanged();
+        events.publish(new TimerEvent.Stopped(this));
     }
     
     /**
      * Réinitialise le timer à sa valeur initiale
      */
     public void resetTimer() {
-        stopTimer();
+        halt();
+        creditStudyTime(); // Le temps étudié reste acquis au cours
+        canReset = false;
         timerModel.reset();
-        notifyStateChanged();
+        events.publish(new TimerEvent.Reset(this));
+    }
+
+    /**
+     * Enregistre un tour du timer en cours et retourne sa durée ({@link Duration#ZERO} à l'arrêt).
+     */
+    public Duration lap() {
+        if (!isRunning()) {
+            return Duration.ZERO;
+        }
+        Duration lap = timerModel.lap();
+        events.publish(new TimerEvent.Lap(this));
+        return lap;
+    }
+
+    /**
+     * Arrête le décompte sans publier d'événement : chaque appelant publie sa propre transition
+     */
+    private void halt() {
+        timerModel.pause();
+        scheduler.unregister(this);
     }
     
     /**
-     * Décrémente le temps du timer d'une seconde.
-     * Cette méthode doit être appelée par un mécanisme externe (ex: Timeline)
+     * Fait avancer le timer d'un tick : retire une seconde (mode TICK) ou recale le restant
+     * mesuré (mode MONOTONIC). Appelée chaque seconde par le TimerTickScheduler pour les timers TICK
      */
     public void decrement() {
-        if (isRunning) {
+        if (isRunning()) {
             timerModel.decrement();
             if (timerModel.isFinished()) {
                 handleTimerFinished();
             }
-            notifyStateChanged();
         }
     }
+
+    /**
+     * Appelée par le TimerTickScheduler quand l'échéance du timer est atteinte : fin du
+     * décompte, ou point de contrôle qui crédite au cours lié le temps étudié jusque-là.
+     */
+    void onDeadline() {
+        if (isRunning()) {
+            if (timerModel.isFinished()) {
+                handleTimerFinished();
+            } else if (!creditStudyTime().isZero()) {
+                events.publish(new TimerEvent.Checkpoint(this));
+            }
+        }
+    }
+
+    /**
+     * Délai jusqu'à la prochaine échéance à traiter : fin du décompte, ou point de contrôle si
+     * du temps est à créditer (cours lié) ou si le timer est un chronomètre, qui ne finit jamais.
+     */
+    long nanosUntilDeadline() {
+        long remaining = timerModel.getRemainingNanos();
+        if (timerModel.getLinkedSubject() == null && !timerModel.isStopwatch()) {
+            return remaining;
+        }
+        return Math.min(remaining, Constants.CREDIT_CHECKPOINT_SECONDS * 1_000_000_000L);
+    }
+
+    /**
+     * Publie un Tick ; appelée à chaque tick pour les timers affichés, qui lisent le restant en direct.
+     */
+    void refreshDisplay() {
+        events.publish(new TimerEvent.Tick(this));
+    }
+
+    boolean hasTickListener() {
+        return events.hasSubscribers(TimerEvent.Tick.class);
+    }
     
     /**
      * Gère la fin du timer
      */
     private void handleTimerFinished() {
-        stopTimer();
+        halt();
         canReset = true;
 
+        creditStudyTime(); // Reste de la session, déjà créditée en partie
+        events.publish(new TimerEvent.Finished(this));
+    }
+
+    /**
+     * Crédite au cours lié le temps étudié depuis le dernier point de contrôle.
+     * @return le temps crédité, nul sans cours lié
+     */
+    private Duration creditStudyTime() {
         Subject linkedSubject = timerModel.getLinkedSubject();
-        if (linkedSubject != null) {
-            java.time.Duration sessionDuration = timerModel.getInitialDuration();
-            linkedSubject.addTimeSpent(sessionDuration);
+        if (linkedSubject == null) {
+            return Duration.ZERO;
+        }
+        Duration studied = timerModel.takeUncreditedTime();
+        if (!studied.isZero()) {
+            linkedSubject.addTimeSpent(studied);
             if (subjectRepository != null) {
                 subjectRepository.save(linkedSubject);
             }
-            System.out.println("Mise à jour du temps pour le cours : " + linkedSubject.getName() + ". Temps ajouté : " + sessionDuration.toString());
-        }
-
-        if (onTimerFinished != null) {
-            onTimerFinished.run();
         }
-    }
-    
-    /**
-     * Notifie le changement d'état des boutons et des valeurs booléennes
-     */
-    private void notifyStateChanged() {
-        if (onStateChanged != null) onStateChanged.run();
+        return studied;
     }
     
     // Getters pour l'état du timer
     public boolean isRunning() {
-        return isRunning;
+        return timerModel.isRunning();
     }
     
     public boolean canReset() {
@@ -183,6 +289,17 @@ public class TimerService {
         return timerModel.isFinished();
     }
     
+    /**
+     * Bus des événements de ce timer : démarrage, pause, ticks, fin, suppression...
+     */
+    public TimerEventBus getEvents() {
+        return events;
+    }
+
+    public TimerTickScheduler getScheduler() {
+        return scheduler;
+    }
+
     public TimerModel getTimerModel() {
         return timerModel;
     }
@@ -204,10 +321,14 @@ public class TimerService {
      * Retourne le temps formaté pour l'affichage
      */
     public String getFormattedTime() {
-        return switch (timerModel.getHours()) {
-            case 0 -> String.format("%02d:%02d", timerModel.getMinutes(), timerModel.getSeconds());
-            default -> String.format("%02d:%02d:%02d", timerModel.getHours(), timerModel.getMinutes(), timerModel.getSeconds());
-        };
+        // Temps exact : juste même si aucun tick n'a recalé le modèle (vue cachée, veille)
+        long shown = timerModel.snapshot().shownSeconds();
+        long hours = shown / 3600;
+        long minutes = shown % 3600 / 60;
+        long seconds = shown % 60;
+        return hours == 0
+                ? String.format("%02d:%02d", minutes, seconds)
+                : String.format("%02d:%02d:%02d", hours, minutes, seconds);
     }
     
     /**
@@ -238,15 +359,6 @@ public class TimerService {
         return value;
     }
     
-    // Setters pour les callbacks
-    public void setOnTimerFinished(Runnable callback) {
-        this.onTimerFinished = callback;
-    }
-    
-    public void setOnStateChanged(Runnable callback) {
-        this.onStateChanged = callback;
-    }
-    
     // Accès direct au type et au cours lié via TimerModel
     public TimerModel.TimerType getTimerType() {
         return timerModel != null ? timerModel.getTimerType() : null;
@@ -261,13 +373,20 @@ public class TimerService {
         if (timerModel != null) timerModel.setLinkedSubject(subject);
     }
     
+    /**
+     * Supprime le timer : arrêt, publication de {@link TimerEvent.Deleted} puis fin des abonnements.
+     */
+    public void delete() {
+        halt();
+        creditStudyTime();
+        events.publish(new TimerEvent.Deleted(this));
+        events.clear();
+    }
+
     /**
      * Nettoie les ressources
      */
     public void dispose() {
-        if (timeline != null) {
-            timeline.stop();
-            timeline = null;
-        }
+        scheduler.unregister(this);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,364 @@
+package com.onyx.app.service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.onyx.app.Constants;
+import com.onyx.app.model.TimerClock;
+import com.onyx.app.model.TimerModel;
+
+/**
+ * Source de tick unique pour tous les timers en cours.
+ *
+ * Au lieu d'une Timeline par TimerService, un seul déclencheur réveille l'application à chaque
+ * frontière de seconde de l'horloge murale. Un timer s'enregistre au démarrage et se retire à
+ * la pause, à l'arrêt et à la fin ; sans timer en cours, aucun réveil n'est programmé.
+ *
+ * La fin des timers (mode MONOTONIC) est portée par une {@link TimingWheel} : un tick ne
+ * traite que les timers dont l'échéance tombe, quel que soit le nombre de timers en cours.
+ * Le rafraîchissement de l'affichage est découplé : seuls les timers dont une vue écoute les
+ * ticks ({@link TimerEvent.Tick}) sont touchés à chaque seconde. Les timers
+ * en mode TICK, qui comptent les ticks, restent décrémentés un par un.
+ *
+ * Les réveils par seconde ne servent qu'à l'affichage : tant qu'aucune vue n'écoute les ticks
+ * (fenêtre réduite, autre écran affiché) et qu'aucun timer TICK ne tourne, un seul réveil est
+ * programmé pour l'échéance la plus proche, tirée d'un {@link DeadlineHeap}. Le premier
+ * écouteur qui réapparaît rétablit les ticks par seconde.
+ *
+ * Le moteur ne dépend pas de JavaFX : les réveils viennent d'un ScheduledExecutorService et le
+ * traitement de chaque tick (callbacks compris) passe par un {@link Executor} de distribution.
+ * L'application graphique installe un ordonnanceur qui distribue sur le thread JavaFX
+ * ({@code Platform::runLater}) ; sans installation, les ticks sont traités directement sur le
+ * thread de l'ordonnanceur. {@link #manual(TimerClock)} ne programme aucun réveil : les tests et
+ * simulations avancent une horloge factice et appellent {@link #tick()} eux-mêmes.
+ *
+ * Les callbacks des timers (fin, décompte, affichage) sont appelés hors du verrou de
+ * l'ordonnanceur : ils sauvegardent dans les repositories, dont un appelant peut tenir le verrou
+ * en attendant {@link #register} ou {@link #unregister}.
+ */
+public final class TimerTickScheduler {
+
+    private static final long NANOS_PER_TICK = Constants.TIMER_UPDATE_INTERVAL * 1_000_000_000L;
+    private static final long PERIOD_MILLIS = Constants.TIMER_UPDATE_INTERVAL * 1000L;
+    // Un timer TICK démarré juste avant une frontière attend la suivante, pour un premier tick à ~1 s
+    private static final long MIN_FIRST_TICK_NANOS = NANOS_PER_TICK / 2;
+
+    private static TimerTickScheduler instance;
+
+    private record Registration(TimerService timer, long registeredAt) {}
+
+    // Même échéance dans la roue (expiration tick par tick) et le tas (prochain réveil en veille)
+    private record Deadline(TimingWheel.Timeout<TimerService> timeout, DeadlineHeap.Entry<TimerService> entry) {}
+
+    private final TimerClock clock;
+    private final ScheduledExecutorService executor; // null : ticks déclenchés à la main
+    private final Executor dispatcher;
+    private final long epochNanos;
+    private final TimingWheel<TimerService> deadlines = new TimingWheel<>(0);
+    private final DeadlineHeap<TimerService> earliest = new DeadlineHeap<>();
+    private final Map<TimerService, Deadline> pending = new IdentityHashMap<>();
+    private final CopyOnWriteArrayList<Registration> tickers = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<TimerService> displays = new CopyOnWriteArrayList<>();
+    private ScheduledFuture<?> pulse;
+    private long pulseGeneration; // Invalide un réveil déjà parti vers le dispatcher
+    private long nextBoundary;
+    private boolean sleeping; // Réveil en attente programmé sur une échéance, pas sur la seconde
+    private DeadlineHeap.Entry<TimerService> sleepingUntil;
+
+    public TimerTickScheduler(TimerClock clock, ScheduledExecutorService executor, Executor dispatcher) {
+        this.clock = clock;
+        this.executor = executor;
+        this.dispatcher = dispatcher;
+        // Origine des ticks calée sur la dernière frontière de seconde murale, où tombent les réveils
+        this.epochNanos = clock.nanoTime() - clock.currentTimeMillis() % PERIOD_MILLIS * 1_000_000L;
+    }
+
+    /**
+     * Ordonnanceur autonome : réveils et traitement sur un thread démon dédié.
+     */
+    public static TimerTickScheduler headless() {
+        return new TimerTickScheduler(TimerClock.SYSTEM, newTickExecutor(), Runnable::run);
+    }
+
+    /**
+     * Ordonnanceur dont les ticks sont traités par {@code dispatcher} (le thread JavaFX pour l'interface).
+     */
+    public static TimerTickScheduler dispatchingTo(Executor dispatcher) {
+        return new TimerTickScheduler(TimerClock.SYSTEM, newTickExecutor(), dispatcher);
+    }
+
+    /**
+     * Ordonnanceur sans réveil, piloté par {@link #tick()} sur l'horloge fournie.
+     */
+    public static TimerTickScheduler manual(TimerClock clock) {
+        return new TimerTickScheduler(clock, null, Runnable::run);
+    }
+
+    public static synchronized TimerTickScheduler getInstance() {
+        if (instance == null) {
+            instance = headless();
+        }
+        return instance;
+    }
+
+    /**
+     * Remplace l'ordonnanceur partagé ; à appeler avant la création des TimerService.
+     */
+    public static synchronized void install(TimerTickScheduler scheduler) {
+        if (instance != null && instance != scheduler) {
+            instance.shutdown();
+        }
+        instance = scheduler;
+    }
+
+    private static ScheduledExecutorService newTickExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "onyx-timer-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    public TimerClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Prend en charge un timer démarré (sans effet s'il l'est déjà).
+     */
+    public synchronized void register(TimerService timer) {
+        if (isRegistered(timer)) {
+            return;
+        }
+        long now = clock.nanoTime();
+        if (timer.getTimerModel().getTimingMode() == TimerModel.TimingMode.TICK) {
+            tickers.add(new Registration(timer, now));
+        } else {
+            scheduleDeadline(timer, now);
+        }
+        if (timer.hasTickListener()) {
+            displays.addIfAbsent(timer);
+        }
+        armPulse();
+    }
+
+    /**
+     * Retire un timer. Le déclencheur s'arrête quand plus aucun timer ne tourne.
+     */
+    public synchronized void unregister(TimerService timer) {
+        cancelDeadline(pending.remove(timer));
+        tickers.removeIf(registration -> registration.timer() == timer);
+        displays.remove(timer);
+        if (isIdle()) {
+            stopPulse();
+        } else {
+            armPulse();
+        }
+    }
+
+    /**
+     * Prend en compte l'ajout ou le retrait de l'écouteur de ticks d'un timer en cours.
+     */
+    public synchronized void updateDisplay(TimerService timer) {
+        if (!isRegistered(timer)) {
+            return;
+        }
+        if (timer.hasTickListener()) {
+            displays.addIfAbsent(timer);
+        } else {
+            displays.remove(timer);
+        }
+        armPulse();
+    }
+
+    public synchronized boolean isRegistered(TimerService timer) {
+        if (pending.containsKey(timer)) {
+            return true;
+        }
+        for (Registration registration : tickers) {
+            if (registration.timer() == timer) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int getRegisteredCount() {
+        return pending.size() + tickers.size();
+    }
+
+    /**
+     * Vrai tant que les réveils sont calés sur la seconde plutôt que sur la prochaine échéance.
+     */
+    public synchronized boolean isTickingEverySecond() {
+        return pulse != null && !sleeping;
+    }
+
+    private boolean isIdle() {
+        return pending.isEmpty() && tickers.isEmpty();
+    }
+
+    // Un affichage ou un timer TICK a besoin de chaque seconde ; sinon seule l'échéance compte
+    private boolean isObserved() {
+        return !displays.isEmpty() || !tickers.isEmpty();
+    }
+
+    /**
+     * Traite un tick à l'instant courant de l'horloge ; pour un ordonnanceur {@link #manual manuel}.
+     */
+    public void tick() {
+        tick(clock.nanoTime());
+    }
+
+    /**
+     * Arrête les réveils et libère le thread de l'ordonnanceur.
+     */
+    public synchronized void shutdown() {
+        stopPulse();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Traite un tick : fin des timers dont l'échéance est atteinte, décompte des timers TICK,
+     * puis rafraîchissement des seuls timers affichés. Les timers concernés sont relevés sous
+     * le verrou, leurs callbacks appelés après l'avoir rendu.
+     */
+    void tick(long nowNanos) {
+        List<TimerService> due = new ArrayList<>();
+        synchronized (this) {
+            deadlines.advance(tickOf(nowNanos), timer -> {
+                Deadline deadline = pending.remove(timer);
+                if (deadline != null) {
+                    earliest.remove(deadline.entry());
+                }
+                due.add(timer);
+            });
+        }
+        for (TimerService timer : due) {
+            expire(timer);
+        }
+        // Listes copiées à l'écriture : leur parcours ne demande pas le verrou
+        for (Registration registration : tickers) {
+            if (nowNanos - registration.registeredAt() >= MIN_FIRST_TICK_NANOS) {
+                registration.timer().decrement();
+            }
+        }
+        for (TimerService timer : displays) {
+            timer.refreshDisplay();
+        }
+    }
+
+    private void expire(TimerService timer) {
+        timer.onDeadline();
+        synchronized (this) {
+            // Échéance arrondie au tick : si le restant n'est pas tout à fait écoulé, on replanifie,
+            // sauf si le timer a été mis en pause ou relancé entre-temps
+            if (timer.isRunning() && !isRegistered(timer)) {
+                scheduleDeadline(timer, clock.nanoTime());
+            }
+        }
+    }
+
+    private void scheduleDeadline(TimerService timer, long nowNanos) {
+        long deadlineNanos = nowNanos + timer.nanosUntilDeadline();
+        // Arrondi au tick supérieur : le timer est terminé quand son échéance est traitée
+        long deadlineTick = (deadlineNanos - epochNanos + NANOS_PER_TICK - 1) / NANOS_PER_TICK;
+        pending.put(timer, new Deadline(deadlines.schedule(timer, deadlineTick), earliest.add(timer, deadlineTick)));
+    }
+
+    private void cancelDeadline(Deadline deadline) {
+        if (deadline != null) {
+            deadlines.cancel(deadline.timeout());
+            earliest.remove(deadline.entry());
+        }
+    }
+
+    private long tickOf(long nanos) {
+        return (nanos - epochNanos) / NANOS_PER_TICK;
+    }
+
+    /**
+     * Met le réveil en accord avec l'état courant : ticks par seconde dès qu'un affichage ou un
+     * timer TICK est présent, sinon un réveil unique sur l'échéance la plus proche.
+     */
+    private void armPulse() {
+        if (executor == null || isIdle()) {
+            return;
+        }
+        if (pulse != null && !sleeping) {
+            return; // Ticks par seconde déjà en place ; le prochain réveil repassera en veille si besoin
+        }
+        if (pulse != null && !isObserved() && sleepingUntil == earliest.peek()) {
+            return;
+        }
+        stopPulse();
+        scheduleNext(clock.currentTimeMillis());
+    }
+
+    private void scheduleNext(long nowMillis) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        long generation = ++pulseGeneration;
+        if (!isObserved()) {
+            // Veille : un seul réveil, à la frontière de tick où expire la prochaine échéance
+            sleepingUntil = earliest.peek();
+            sleeping = true;
+            nextBoundary = 0; // Réalignement sur la seconde au retour d'un affichage
+            long delayNanos = epochNanos + sleepingUntil.getDeadline() * NANOS_PER_TICK - clock.nanoTime();
+            pulse = executor.schedule(() -> dispatcher.execute(() -> onPulse(generation)),
+                    Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+            return;
+        }
+        sleeping = false;
+        sleepingUntil = null;
+        // Prochaine frontière de seconde. Un réveil légèrement en avance vise toujours la suivante ;
+        // après une mise en veille ou un changement d'heure, on se réaligne sur maintenant
+        nextBoundary += PERIOD_MILLIS;
+        if (nextBoundary <= nowMillis || nextBoundary > nowMillis + 2 * PERIOD_MILLIS) {
+            nextBoundary = nowMillis - nowMillis % PERIOD_MILLIS + PERIOD_MILLIS;
+        }
+        pulse = executor.schedule(() -> dispatcher.execute(() -> onPulse(generation)),
+                nextBoundary - nowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void onPulse(long generation) {
+        synchronized (this) {
+            if (generation != pulseGeneration) {
+                return; // Réveil annulé ou remplacé pendant son trajet vers le dispatcher
+            }
+            pulse = null;
+            sleeping = false;
+            sleepingUntil = null;
+        }
+        tick(clock.nanoTime());
+        synchronized (this) {
+            // Un timer démarré pendant le tick a pu programmer le réveil suivant
+            if (!isIdle() && pulse == null) {
+                scheduleNext(clock.currentTimeMillis());
+            }
+        }
+    }
+
+    private void stopPulse() {
+        pulseGeneration++;
+        sleeping = false;
+        sleepingUntil = null;
+        if (pulse != null) {
+            pulse.cancel(false);
+            pulse = null;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.onyx.app.service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import com.onyx.app.Constants;
 import com.onyx.app.model.Subject;
@@ -16,35 +20,86 @@ import com.onyx.app.repository.impl.JsonTimerRepository;
 /**
  * Service pour gérer plusieurs timers
  * Permet de créer, supprimer et gérer une collection de timers
+ *
+ * Les ensembles des timers actifs et en cours sont tenus à jour transition par transition :
+ * seul le timer qui change d'état est reclassé, et les compteurs se lisent en O(1) quel que
+ * soit le nombre de timers.
+ *
+ * Les timers persistés restent de simples modèles tant que personne ne s'en sert : leur
+ * TimerService n'est créé qu'au démarrage, à l'affichage d'une carte ou pour une opération
+ * groupée qui les concerne. Le coût du chargement suit ainsi les timers réellement utilisés.
  */
 public class TimersManagerService {
     
     private final TimerRepository timerRepository;
     private final SubjectRepository subjectRepository;
-    private List<TimerService> timers;
-    private List<TimerService> activeTimers;
+    private final TimerTickScheduler scheduler;
+    // Ordre d'affichage ; le service de chaque entrée est créé à la demande
+    private final List<TimerEntry> timers = new ArrayList<>();
+    private final Map<String, TimerEntry> timersById = new HashMap<>();
+    // Identité des entrées ; ordre d'entrée dans l'ensemble
+    private final Set<TimerEntry> activeTimers = new LinkedHashSet<>();
+    private final Set<TimerEntry> runningTimers = new LinkedHashSet<>();
+    private int loadedTimers;
+    // Modèles à écrire à la fin de l'opération groupée en cours ; null hors opération groupée
+    private Set<TimerModel> deferredSaves;
     
     // Callbacks pour notifier l'interface utilisateur
     private Runnable onTimersListChanged;
     private Runnable onActiveTimersChanged;
+    private Consumer<TimerService> onTimerFinished;
+
+    /**
+     * Timer géré : son modèle, et son service une fois créé.
+     */
+    private static final class TimerEntry {
+        private TimerModel model;
+        private TimerService service;
+
+        private TimerEntry(TimerModel model) {
+            this.model = model;
+        }
+    }
     
     public TimersManagerService() {
         // Default constructor for convenience, uses JSON implementation
-        this(new JsonTimerRepository(), new JsonSubjectRepository());
+        this(new JsonSubjectRepository());
+    }
+
+    private TimersManagerService(SubjectRepository subjectRepository) {
+        // Les timers résolvent leur sujet dans le même repository que le service
+        this(new JsonTimerRepository(subjectRepository), subjectRepository);
     }
 
     public TimersManagerService(TimerRepository timerRepository, SubjectRepository subjectRepository) {
+        this(timerRepository, subjectRepository, TimerTickScheduler.getInstance());
+    }
+
+    /**
+     * Gestionnaire dont les timers sont pilotés par {@code scheduler} (utilisation sans interface, tests).
+     */
+    public TimersManagerService(TimerRepository timerRepository, SubjectRepository subjectRepository,
+                                TimerTickScheduler scheduler) {
         this.timerRepository = timerRepository;
         this.subjectRepository = subjectRepository;
-        this.timers = timerRepository.findAll().stream()
-                            .map(model -> {
-                                TimerService timerService = new TimerService(subjectRepository);
-                                timerService.setTimerModel(model);
-                                return timerService;
-                            })
-                            .collect(Collectors.toList());
-        this.activeTimers = new ArrayList<>();
-        updateActiveTimers(); // Initialize active timers based on loaded data
+        this.scheduler = scheduler;
+        for (TimerModel model : timerRepository.findAll()) {
+            classify(add(model)); // Initialize active timers based on loaded data
+        }
+        // Timers en cours à la fermeture : seuls ceux-là reçoivent un service, pour reprendre
+        // ou finir selon l'heure, en une seule écriture. Les timers repris ne sont confiés à
+        // l'ordonnanceur qu'ensuite : aucun tick ne les touche pendant la construction
+        List<TimerService> resumed = new ArrayList<>();
+        batch(() -> {
+            for (TimerEntry entry : timers) {
+                if (entry.model.getDeadlineEpochMillis() != 0 && hydrate(entry).resumePersisted()) {
+                    resumed.add(entry.service);
+                }
+            }
+        });
+        for (TimerService timerService : resumed) {
+            timerService.scheduleResumed();
+        }
     }
     
     /**
@@ -63,6 +118,15 @@ public class TimersManagerService {
         return createTimerServiceFromModel(newModel);
     }
     
+    /**
+     * Crée un chronomètre pour une session d'étude ouverte, sans durée fixée
+     */
+    public TimerService createStopwatch(TimerModel.TimerType timerType, Subject subject) {
+        TimerModel newModel = TimerModel.stopwatch(timerType, subject);
+        timerRepository.save(newModel);
+        return createTimerServiceFromModel(newModel);
+    }
+    
     /**
      * Crée un timer à partir d'un modèle existant
      */
@@ -72,38 +136,125 @@ public class TimersManagerService {
     }
 
     private TimerService createTimerServiceFromModel(TimerModel model) {
-        TimerService timerService = new TimerService(subjectRepository);
-        timerService.setTimerModel(model);
-        
-        // Configurer les callbacks pour ce timer
-        timerService.setOnStateChanged(() -> {
-            updateActiveTimers();
-            notifyTimersListChanged();
-            timerRepository.save(timerService.getTimerModel()); // Save state changes
-        });
-        
-        timerService.setOnTimerFinished(() -> {
-            updateActiveTimers();
-            notifyTimersListChanged();
-            timerRepository.save(timerService.getTimerModel()); // Save final state
-        });
-        
-        timers.add(timerService);
-        updateActiveTimers();
+        TimerEntry entry = add(model);
+        TimerService timerService = hydrate(entry);
+        if (classify(entry)) {
+            notifyActiveTimersChanged();
+        }
         notifyTimersListChanged();
        
         return timerService;
     }
+
+    private TimerEntry add(TimerModel model) {
+        TimerEntry entry = new TimerEntry(model);
+        timers.add(entry);
+        timersById.put(model.getId(), entry);
+        return entry;
+    }
+
+    /**
+     * Service du timer, créé au premier usage.
+     */
+    private TimerService hydrate(TimerEntry entry) {
+        if (entry.service == null) {
+            entry.service = new TimerService(entry.model, subjectRepository, scheduler);
+            loadedTimers++;
+            track(entry);
+        }
+        return entry.service;
+    }
+    
+    /**
+     * Abonne le gestionnaire aux transitions du timer : ensembles des actifs et en cours, et
+     * sauvegarde. Les vues s'abonnent de leur côté sans remplacer cet abonnement.
+     */
+    private void track(TimerEntry entry) {
+        TimerService timerService = entry.service;
+        timerService.getEvents().subscribe(TimerEvent.StateChange.class, event -> {
+            if (event instanceof TimerEvent.Deleted) {
+                return; // Suppression initiée par le gestionnaire lui-même
+            }
+            entry.model = timerService.getTimerModel(); // Remplacé si le timer est reconfiguré
+            if (!(event instanceof TimerEvent.Checkpoint) && classify(entry)) {
+                notifyActiveTimersChanged();
+            }
+            save(entry.model); // Save state changes
+            if (event instanceof TimerEvent.Finished) {
+                notifyTimerFinished(timerService);
+            }
+        });
+    }
+
+    private void save(TimerModel model) {
+        if (deferredSaves != null) {
+            deferredSaves.add(model);
+        } else {
+            timerRepository.save(model);
+        }
+    }
+
+    /**
+     * Exécute une opération groupée : chaque timer change d'état, puis les modèles touchés sont
+     * écrits par un seul saveAll. Aucun verrou de repository n'est tenu pendant les appels à
+     * l'ordonnanceur ou au repository des cours.
+     */
+    private void batch(Runnable work) {
+        if (deferredSaves != null) {
+            work.run();
+            return;
+        }
+        Set<TimerModel> saves = new LinkedHashSet<>();
+        deferredSaves = saves;
+        try {
+            work.run();
+        } finally {
+            deferredSaves = null;
+            if (!saves.isEmpty()) {
+                timerRepository.saveAll(saves);
+            }
+        }
+    }
+
+    /**
+     * Range le timer dans les ensembles des actifs (en cours ou non terminés) et des timers en
+     * cours selon son état courant. Un timer sans service est forcément arrêté.
+     * @return true si l'un des ensembles a changé
+     */
+    private boolean classify(TimerEntry entry) {
+        boolean running = entry.service != null && entry.service.isRunning();
+        boolean changed = running ? runningTimers.add(entry) : runningTimers.remove(entry);
+        if (running || !entry.model.isFinished()) {
+            changed |= activeTimers.add(entry);
+        } else {
+            changed |= activeTimers.remove(entry);
+        }
+        return changed;
+    }
+
+    private boolean unclassify(TimerEntry entry) {
+        boolean wasRunning = runningTimers.remove(entry);
+        return activeTimers.remove(entry) | wasRunning;
+    }
     
     /**
      * Supprime un timer de la liste
      */
     public void removeTimer(TimerService timerService) {
         if (timerService != null) {
-            timerService.dispose();
-            timers.remove(timerService);
-            timerRepository.deleteById(timerService.getTimerModel().getId()); // Delete from repository
-            updateActiveTimers();
+            String id = timerService.getTimerModel().getId();
+            timerService.delete();
+            TimerEntry entry = timersById.get(id);
+            if (entry != null && entry.service == timerService) {
+                timers.remove(entry);
+                timersById.remove(id);
+                loadedTimers--;
+                if (unclassify(entry)) {
+                    notifyActiveTimersChanged();
+                }
+            }
+            timerRepository.deleteById(id); // Delete from repository
+            timerService.getTimerModel().release(); // Plus référencé ni par le gestionnaire ni par le repository
             notifyTimersListChanged();
         }
     }
@@ -112,12 +263,22 @@ public class TimersManagerService {
      * Supprime tous les timers
      */
     public void removeAllTimers() {
-        for (TimerService timer : timers) {
-            timer.dispose();
-            timerRepository.deleteById(timer.getTimerModel().getId()); // Delete from repository
+        List<String> ids = new ArrayList<>(timers.size());
+        for (TimerEntry entry : timers) {
+            if (entry.service != null) {
+                entry.service.delete(); // Un timer sans service n'a rien à arrêter ni à créditer
+            }
+            ids.add(entry.model.getId());
+        }
+        timerRepository.deleteAll(ids); // Une seule écriture pour tout le lot
+        for (TimerEntry entry : timers) {
+            entry.model.release();
         }
         timers.clear();
+        timersById.clear();
+        loadedTimers = 0;
         activeTimers.clear();
+        runningTimers.clear();
         notifyTimersListChanged();
         notifyActiveTimersChanged();
     }
@@ -126,48 +287,76 @@ public class TimersManagerService {
      * Met en pause tous les timers actifs
      */
     public void pauseAllTimers() {
-        for (TimerService timer : activeTimers) {
-            if (timer.isRunning()) {
-                timer.pauseTimer();
+        // Les sauvegardes déclenchées par chaque timer sont regroupées en une seule écriture
+        batch(() -> {
+            for (TimerEntry entry : new ArrayList<>(runningTimers)) {
+                entry.service.pauseTimer();
             }
-        }
+        });
     }
     
     /**
      * Arrête tous les timers
      */
     public void stopAllTimers() {
-        for (TimerService timer : timers) {
-            timer.stopTimer();
-        }
-        updateActiveTimers();
+        // Les sauvegardes déclenchées par chaque timer sont regroupées en une seule écriture ;
+        // un timer sans service est déjà arrêté
+        batch(() -> {
+            for (TimerEntry entry : timers) {
+                if (entry.service != null) {
+                    entry.service.stopTimer();
+                }
+            }
+        });
     }
     
     /**
-     * Met à jour la liste des timers actifs
+     * Retourne tous les timers, en créant les services manquants
      */
-    private void updateActiveTimers() {
-        activeTimers.clear();
-        for (TimerService timer : timers) {
-            if (timer.isRunning() || !timer.isFinished()) {
-                activeTimers.add(timer);
-            }
+    public List<TimerService> getAllTimers() {
+        List<TimerService> all = new ArrayList<>(timers.size());
+        for (TimerEntry entry : timers) {
+            all.add(hydrate(entry));
         }
-        notifyActiveTimersChanged();
+        return all;
     }
-    
+
     /**
-     * Retourne tous les timers
+     * Retourne les modèles de tous les timers, dans l'ordre d'affichage, sans créer de service
      */
-    public List<TimerService> getAllTimers() {
-        return new ArrayList<>(timers);
+    public List<TimerModel> getAllTimerModels() {
+        List<TimerModel> all = new ArrayList<>(timers.size());
+        for (TimerEntry entry : timers) {
+            all.add(entry.model);
+        }
+        return all;
+    }
+
+    /**
+     * Retourne le service du timer d'identifiant {@code id}, créé au besoin
+     * @return null si aucun timer ne porte cet identifiant
+     */
+    public TimerService getTimer(String id) {
+        TimerEntry entry = timersById.get(id);
+        return entry != null ? hydrate(entry) : null;
     }
     
     /**
      * Retourne seulement les timers actifs (en cours ou non terminés)
      */
     public List<TimerService> getActiveTimers() {
-        return new ArrayList<>(activeTimers);
+        List<TimerService> active = new ArrayList<>(activeTimers.size());
+        for (TimerEntry entry : activeTimers) {
+            active.add(hydrate(entry));
+        }
+        return active;
+    }
+
+    /**
+     * Nombre de timers dont le service a été créé
+     */
+    public int getLoadedTimersCount() {
+        return loadedTimers;
     }
     
     /**
@@ -188,13 +377,7 @@ public class TimersManagerService {
      * Retourne le nombre de timers en cours d'exécution
      */
     public int getRunningTimersCount() {
-        int count = 0;
-        for (TimerService timer : timers) {
-            if (timer.isRunning()) {
-                count++;
-            }
-        }
-        return count;
+        return runningTimers.size();
     }
     
     public SubjectRepository getSubjectRepository() {
@@ -205,7 +388,7 @@ public class TimersManagerService {
      * Vérifie s'il y a des timers en cours d'exécution
      */
     public boolean hasRunningTimers() {
-        return getRunningTimersCount() > 0;
+        return !runningTimers.isEmpty();
     }
     
     /**
@@ -226,6 +409,15 @@ public class TimersManagerService {
         }
     }
     
+    /**
+     * Notifie la fin d'un timer, qu'une vue l'affiche ou non
+     */
+    private void notifyTimerFinished(TimerService timerService) {
+        if (onTimerFinished != null) {
+            onTimerFinished.accept(timerService);
+        }
+    }
+
     // Setters pour les callbacks
     public void setOnTimersListChanged(Runnable callback) {
         this.onTimersListChanged = callback;
@@ -234,6 +426,10 @@ public class TimersManagerService {
     public void setOnActiveTimersChanged(Runnable callback) {
         this.onActiveTimersChanged = callback;
     }
+
+    public void setOnTimerFinished(Consumer<TimerService> callback) {
+        this.onTimerFinished = callback;
+    }
     
     /**
      * Nettoie toutes les ressources
@@ -0,0 +1,198 @@
+package com.onyx.app.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Roue temporelle hiérarchique hachée : échéances exprimées en ticks entiers.
+ *
+ * Quatre niveaux de 64 cases couvrent 64, 64², 64³ et 64⁴ ticks (plus de 194 jours à un tick
+ * par seconde) ; au-delà, les échéances attendent dans une liste de débordement. Une échéance
+ * est rangée au niveau le plus bas dont le bloc contient aussi le tick courant, puis redescend
+ * d'un niveau chaque fois que le tick courant entre dans son bloc. Avancer d'un tick ne touche
+ * donc qu'une case par niveau concerné et les échéances qui y expirent : le coût ne dépend pas
+ * du nombre d'échéances en attente. Planifier et annuler sont en O(1).
+ *
+ * Non thread-safe : utilisée sous le verrou du TimerTickScheduler.
+ */
+public final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * Échéance planifiée ; annulable via {@link TimingWheel#cancel(Timeout)}.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private long deadline;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Bucket<T> bucket;
+
+        private Timeout(T item) {
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isPending() {
+            return bucket != null;
+        }
+    }
+
+    // Liste doublement chaînée intrusive : retrait en O(1) sans recherche
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        private void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        private Timeout<T> detachAll() {
+            Timeout<T> first = head;
+            head = null;
+            for (Timeout<T> t = first; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            return first;
+        }
+    }
+
+    private final Bucket<T>[][] wheels;
+    private final Bucket<T> overflow = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.wheels = (Bucket<T>[][]) new Bucket<?>[LEVELS][SLOTS];
+        for (Bucket<T>[] level : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Bucket<>();
+            }
+        }
+    }
+
+    /**
+     * Planifie {@code item} pour le tick {@code deadline} ; une échéance déjà passée expire au
+     * prochain tick.
+     */
+    public Timeout<T> schedule(T item, long deadline) {
+        Timeout<T> timeout = new Timeout<>(item);
+        timeout.deadline = Math.max(deadline, currentTick + 1);
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Annule une échéance encore en attente (sans effet sinon).
+     */
+    public void cancel(Timeout<T> timeout) {
+        if (timeout != null && timeout.bucket != null) {
+            timeout.bucket.remove(timeout);
+            size--;
+        }
+    }
+
+    /**
+     * Avance jusqu'au tick {@code tick} inclus et livre chaque échéance expirée à {@code expired}.
+     * L'action peut planifier ou annuler d'autres échéances.
+     */
+    public void advance(long tick, Consumer<T> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            cascade();
+            Bucket<T> due = wheels[0][(int) (currentTick & MASK)];
+            Timeout<T> timeout = due.detachAll();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                size--;
+                expired.accept(timeout.item);
+                timeout = next;
+            }
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // deadline >= currentTick : une échéance qui redescend sur le tick courant expire dans la foulée
+    private void insert(Timeout<T> timeout) {
+        long deadline = timeout.deadline;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            if ((deadline >>> shift) == (currentTick >>> shift)) {
+                wheels[level][(int) ((deadline >>> (BITS * level)) & MASK)].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    /**
+     * Quand le tick courant entre dans un nouveau bloc d'un niveau, les échéances de la case
+     * correspondante du niveau supérieur redescendent. Les niveaux hauts d'abord.
+     */
+    private void cascade() {
+        if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+            reinsert(overflow);
+        }
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                reinsert(wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)]);
+            }
+        }
+    }
+
+    private void reinsert(Bucket<T> bucket) {
+        Timeout<T> timeout = bucket.detachAll();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            insert(timeout);
+            timeout = next;
+        }
+    }
+}